@@ -0,0 +1,75 @@
+// ==================== AnalyticsBenchmark.java ====================
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Year-over-year/category/rolling analytics over the whole ledger, on fork/join
+ * pools of different sizes, to see how the per-month partitions scale with cores.
+ * threads=1 is the sequential baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsBenchmark {
+    private static final MethodHandle WRITE = App.staticMethod("TransactionFile", "write", void.class, Path.class, List.class);
+    private static final MethodHandle NEW_JOURNAL = App.constructor("TransactionJournal", String.class, String.class, String.class);
+    private static final MethodHandle LOAD = App.method("TransactionJournal", "load", App.type("TransactionManager"));
+    private static final MethodHandle CLOSE = App.method("TransactionJournal", "close", void.class);
+    private static final MethodHandle NEW_ENGINE = App.constructor("AnalyticsEngine",
+            App.type("TransactionManager"), ForkJoinPool.class);
+    private static final MethodHandle ANALYZE = App.method("AnalyticsEngine", "analyze", App.type("AnalyticsEngine$Analysis"),
+            YearMonth.class, YearMonth.class, String.class, App.type("ExchangeRates"));
+    private static final MethodHandle NO_RATES = App.staticMethod("ExchangeRates", "none", App.type("ExchangeRates"));
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Path dir;
+    private Object journal;
+    private ForkJoinPool pool;
+    private Object engine;
+    private Object rates;
+    private YearMonth from;
+    private YearMonth to;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        dir = Files.createTempDirectory("bench");
+        Path snapshot = dir.resolve("transactions.dat");
+        WRITE.invoke(snapshot, App.ledger(size));
+
+        journal = NEW_JOURNAL.invoke(snapshot.toString(), dir.resolve("transactions.journal").toString(), "USD");
+        pool = new ForkJoinPool(threads);
+        engine = NEW_ENGINE.invoke(LOAD.invoke(journal), pool);
+        rates = NO_RATES.invoke();
+        from = YearMonth.from(App.START);
+        to = YearMonth.from(App.START.plusDays(App.DAYS - 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        pool.shutdown();
+        CLOSE.invoke(journal);
+        App.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Object analyzeWholeLedger() throws Throwable {
+        return ANALYZE.invoke(engine, from, to, "USD", rates);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+// ==================== ApiServerBenchmark.java ====================
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second against ApiServer on loopback. The mixed group adds
+ * transactions through AppController while the API is being read, the way the
+ * GUI does when both run in one process.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ApiServerBenchmark {
+    private static final MethodHandle WRITE = App.staticMethod("TransactionFile", "write", void.class, Path.class, List.class);
+    private static final MethodHandle NEW_CONTROLLER = App.constructor("AppController", Path.class);
+    private static final MethodHandle ADD = App.method("AppController", "addTransaction", void.class,
+            String.class, LocalDate.class, String.class, String.class, long.class, String.class, boolean.class, String.class);
+    private static final MethodHandle SHUTDOWN = App.method("AppController", "shutdown", void.class);
+    private static final MethodHandle NEW_SERVER = App.constructor("ApiServer", App.type("AppController"), int.class);
+    private static final MethodHandle START = App.method("ApiServer", "start", void.class);
+    private static final MethodHandle STOP = App.method("ApiServer", "stop", void.class);
+    private static final MethodHandle PORT = App.method("ApiServer", "getPort", int.class);
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private Object controller;
+    private Object server;
+    private HttpClient client;
+    private HttpRequest monthPage;
+    private HttpRequest monthSummary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        dir = Files.createTempDirectory("bench");
+        WRITE.invoke(dir.resolve("transactions.dat"), App.ledger(size));
+
+        controller = NEW_CONTROLLER.invoke(dir);
+        server = NEW_SERVER.invoke(controller, 0);
+        START.invoke(server);
+
+        String base = "http://127.0.0.1:" + (int) PORT.invoke(server) + "/api/";
+        YearMonth month = YearMonth.from(App.START.plusDays(App.DAYS / 2));
+        client = HttpClient.newHttpClient();
+        monthPage = HttpRequest.newBuilder(URI.create(base + "transactions?month=" + month + "&limit=100")).build();
+        monthSummary = HttpRequest.newBuilder(URI.create(base + "summary?month=" + month)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        STOP.invoke(server);
+        SHUTDOWN.invoke(controller);
+        App.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String transactionsPage() throws Exception {
+        return get(monthPage);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String summary() throws Exception {
+        return get(monthSummary);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public String mixedRead() throws Exception {
+        return get(monthPage);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite() throws Throwable {
+        ADD.invoke(controller, UUID.randomUUID().toString(), App.START.plusDays(App.DAYS / 2),
+                "Coffee", "Food", 350L, "USD", false, (String) null);
+    }
+
+    private String get(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+}
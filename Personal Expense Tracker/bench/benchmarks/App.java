@@ -0,0 +1,98 @@
+// ==================== App.java ====================
+package benchmarks;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Access to the application classes. They live in the unnamed package, which a
+ * named package cannot import, and JMH will not generate benchmarks in the
+ * unnamed package. Calls go through static final method handles instead; the
+ * JIT inlines those, so they cost the same as a direct call.
+ */
+final class App {
+    private static final String[] CATEGORIES = {
+            "Food", "Entertainment", "Groceries", "Transportation", "Bills and Fees", "Shopping"
+    };
+
+    // First day of generated ledgers; rows are spread over three years from here
+    static final LocalDate START = LocalDate.of(2023, 1, 1);
+    static final int DAYS = 3 * 365;
+
+    private App() {
+    }
+
+    static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static MethodHandle constructor(String owner, Class<?>... params) {
+        try {
+            return MethodHandles.publicLookup().findConstructor(type(owner), MethodType.methodType(void.class, params));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static MethodHandle method(String owner, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            return MethodHandles.publicLookup().findVirtual(type(owner), name, MethodType.methodType(returnType, params));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static MethodHandle staticMethod(String owner, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            return MethodHandles.publicLookup().findStatic(type(owner), name, MethodType.methodType(returnType, params));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final MethodHandle NEW_TRANSACTION = constructor("Transaction",
+            String.class, LocalDate.class, String.class, String.class, long.class, String.class, boolean.class, String.class);
+    static final MethodHandle TRANSACTION_ID = method("Transaction", "getId", String.class);
+
+    // A reproducible ledger: mostly expenses, one in five with a note, ids are UUIDs as the UI creates them
+    static List<Object> ledger(int size) throws Throwable {
+        Random random = new Random(size);
+        List<Object> ledger = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            boolean income = random.nextInt(10) == 0;
+            ledger.add(NEW_TRANSACTION.invoke(
+                    new UUID(random.nextLong(), random.nextLong()).toString(),
+                    START.plusDays(random.nextInt(DAYS)),
+                    (income ? "Salary " : "Purchase ") + i,
+                    income ? "Extras" : CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    (long) random.nextInt(50000),
+                    "USD",
+                    income,
+                    random.nextInt(5) == 0 ? "Note for row " + i : null));
+        }
+        return ledger;
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
\ No newline at end of file
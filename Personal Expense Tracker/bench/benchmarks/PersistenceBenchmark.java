@@ -0,0 +1,98 @@
+// ==================== PersistenceBenchmark.java ====================
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The save/load path AppController runs through TransactionJournal: writing the
+ * whole ledger as one file (what compaction did before month segments) against
+ * writing one month's segment (what it does after an edit now), opening the
+ * segments at startup, and opening them then decoding every row (what a full
+ * export pays).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+    private static final MethodHandle WRITE = App.staticMethod("TransactionFile", "write", void.class, Path.class, List.class);
+    private static final MethodHandle NEW_JOURNAL = App.constructor("TransactionJournal", String.class, String.class, String.class);
+    private static final MethodHandle LOAD = App.method("TransactionJournal", "load", App.type("TransactionManager"));
+    private static final MethodHandle CLOSE = App.method("TransactionJournal", "close", void.class);
+    private static final MethodHandle GET_ALL = App.method("TransactionManager", "getAllTransactions", List.class);
+    private static final MethodHandle DATE = App.method("Transaction", "getDate", LocalDate.class);
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private Path snapshot;
+    private Path journalFile;
+    private Path scratch;
+    private List<Object> ledger;
+    private List<Object> month;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        dir = Files.createTempDirectory("bench");
+        snapshot = dir.resolve("transactions.dat");
+        journalFile = dir.resolve("transactions.journal");
+        scratch = dir.resolve("scratch.dat");
+        ledger = App.ledger(size);
+        WRITE.invoke(snapshot, ledger);
+        // The first load splits the file into month segments
+        Object journal = NEW_JOURNAL.invoke(snapshot.toString(), journalFile.toString(), "USD");
+        LOAD.invoke(journal);
+        CLOSE.invoke(journal);
+
+        YearMonth middle = YearMonth.from(App.START.plusDays(App.DAYS / 2));
+        month = new ArrayList<>();
+        for (Object t : ledger) {
+            if (YearMonth.from((LocalDate) DATE.invoke(t)).equals(middle)) {
+                month.add(t);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        App.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public void save() throws Throwable {
+        WRITE.invoke(scratch, ledger);
+    }
+
+    @Benchmark
+    public void saveMonth() throws Throwable {
+        WRITE.invoke(scratch, month);
+    }
+
+    @Benchmark
+    public Object open() throws Throwable {
+        Object journal = NEW_JOURNAL.invoke(snapshot.toString(), journalFile.toString(), "USD");
+        Object manager = LOAD.invoke(journal);
+        CLOSE.invoke(journal);
+        return manager;
+    }
+
+    @Benchmark
+    public Object openAndReadAll() throws Throwable {
+        Object journal = NEW_JOURNAL.invoke(snapshot.toString(), journalFile.toString(), "USD");
+        Object all = GET_ALL.invoke(LOAD.invoke(journal));
+        CLOSE.invoke(journal);
+        return all;
+    }
+}
\ No newline at end of file
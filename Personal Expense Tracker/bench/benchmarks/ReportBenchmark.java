@@ -0,0 +1,104 @@
+// ==================== ReportBenchmark.java ====================
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV and text exports of the whole ledger, and a redraw of the calendar
+ * page's month view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+    // Rows the calendar page has on screen at once
+    private static final int SCREEN_ROWS = 30;
+
+    private static final MethodHandle WRITE = App.staticMethod("TransactionFile", "write", void.class, Path.class, List.class);
+    private static final MethodHandle NEW_JOURNAL = App.constructor("TransactionJournal", String.class, String.class, String.class);
+    private static final MethodHandle LOAD = App.method("TransactionJournal", "load", App.type("TransactionManager"));
+    private static final MethodHandle CLOSE = App.method("TransactionJournal", "close", void.class);
+    private static final MethodHandle ITERATOR = App.method("TransactionManager", "iterator", Iterator.class);
+    private static final MethodHandle GET_ALL = App.method("TransactionManager", "getAllTransactions", List.class);
+    private static final MethodHandle VIEW_RANGE = App.method("TransactionManager", "viewRange", List.class,
+            LocalDate.class, LocalDate.class);
+    private static final MethodHandle NEW_AGGREGATES = App.constructor("AggregateCache",
+            App.type("TransactionManager"), App.type("ExchangeRates"));
+    private static final MethodHandle NO_RATES = App.staticMethod("ExchangeRates", "none", App.type("ExchangeRates"));
+    private static final MethodHandle GET_MONTH = App.method("AggregateCache", "getMonth", App.type("AggregateCache$Summary"),
+            YearMonth.class, String.class);
+    private static final MethodHandle NEW_REPORTS = App.constructor("ReportGenerator");
+    private static final MethodHandle EXPORT_CSV = App.method("ReportGenerator", "exportToCSV", void.class, Iterator.class, String.class);
+    private static final MethodHandle EXPORT_TXT = App.method("ReportGenerator", "exportToTXT", void.class, List.class, String.class);
+    private static final MethodHandle FORMAT_TITLE = App.staticMethod("ReportGenerator", "formatMonthlyTitle", String.class,
+            YearMonth.class);
+    private static final MethodHandle FORMAT_ROW = App.staticMethod("ReportGenerator", "formatMonthlyRow", String.class,
+            App.type("Transaction"));
+    private static final MethodHandle FORMAT_TOTALS = App.staticMethod("ReportGenerator", "formatMonthlyTotals", String.class,
+            App.type("AggregateCache$Summary"));
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private Object journal;
+    private Object manager;
+    private Object reports;
+    private List<?> all;
+    private YearMonth month;
+    private Object monthSummary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        dir = Files.createTempDirectory("bench");
+        Path snapshot = dir.resolve("transactions.dat");
+        WRITE.invoke(snapshot, App.ledger(size));
+
+        journal = NEW_JOURNAL.invoke(snapshot.toString(), dir.resolve("transactions.journal").toString(), "USD");
+        manager = LOAD.invoke(journal);
+        reports = NEW_REPORTS.invoke();
+        all = (List<?>) GET_ALL.invoke(manager);
+
+        month = YearMonth.from(App.START.plusDays(App.DAYS / 2));
+        monthSummary = GET_MONTH.invoke(NEW_AGGREGATES.invoke(manager, NO_RATES.invoke()), month, "USD");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        CLOSE.invoke(journal);
+        App.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public void exportToCSV() throws Throwable {
+        EXPORT_CSV.invoke(reports, (Iterator<?>) ITERATOR.invoke(manager), dir.resolve("export.csv").toString());
+    }
+
+    @Benchmark
+    public void exportToTXT() throws Throwable {
+        EXPORT_TXT.invoke(reports, all, dir.resolve("export.txt").toString());
+    }
+
+    // The month's rows as a lazy view, its title and totals, and one screenful of rows formatted
+    @Benchmark
+    public int calendarMonthView() throws Throwable {
+        List<?> rows = (List<?>) VIEW_RANGE.invoke(manager, month.atDay(1), month.atEndOfMonth());
+        int length = ((String) FORMAT_TITLE.invoke(month)).length() + ((String) FORMAT_TOTALS.invoke(monthSummary)).length();
+        for (int i = 0; i < Math.min(SCREEN_ROWS, rows.size()); i++) {
+            length += ((String) FORMAT_ROW.invoke(rows.get(i))).length();
+        }
+        return length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+// ==================== SearchBenchmark.java ====================
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-as-you-type over a ledger loaded from month segments with their index
+ * files, for queries from very broad (one letter) to narrow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final MethodHandle WRITE = App.staticMethod("TransactionFile", "write", void.class, Path.class, List.class);
+    private static final MethodHandle NEW_JOURNAL = App.constructor("TransactionJournal", String.class, String.class, String.class);
+    private static final MethodHandle LOAD = App.method("TransactionJournal", "load", App.type("TransactionManager"));
+    private static final MethodHandle CLOSE = App.method("TransactionJournal", "close", void.class);
+    private static final MethodHandle OPEN_INDEX = App.staticMethod("SearchIndex", "open", App.type("SearchIndex"),
+            App.type("TransactionManager"));
+    private static final MethodHandle SEARCH = App.method("SearchIndex", "search", List.class, String.class, int.class);
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"p", "purchase", "purchase 12", "note for row 4", "food"})
+    public String query;
+
+    private Path dir;
+    private Object journal;
+    private Object index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        dir = Files.createTempDirectory("bench");
+        Path snapshot = dir.resolve("transactions.dat");
+        WRITE.invoke(snapshot, App.ledger(size));
+
+        journal = NEW_JOURNAL.invoke(snapshot.toString(), dir.resolve("transactions.journal").toString(), "USD");
+        // The first load splits the snapshot into indexed segments, as on the first start after an upgrade
+        index = OPEN_INDEX.invoke(LOAD.invoke(journal));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        CLOSE.invoke(journal);
+        App.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public List<?> typeahead() throws Throwable {
+        return (List<?>) SEARCH.invoke(index, query, 200);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+// ==================== TransactionManagerBenchmark.java ====================
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Period and id lookups on a ledger loaded the way the app loads it: a mapped
+ * snapshot from TransactionJournal, with an empty journal on top.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionManagerBenchmark {
+    private static final MethodHandle WRITE = App.staticMethod("TransactionFile", "write", void.class, Path.class, List.class);
+    private static final MethodHandle NEW_JOURNAL = App.constructor("TransactionJournal", String.class, String.class, String.class);
+    private static final MethodHandle LOAD = App.method("TransactionJournal", "load", App.type("TransactionManager"));
+    private static final MethodHandle CLOSE = App.method("TransactionJournal", "close", void.class);
+    private static final MethodHandle GET_BY_MONTH = App.method("TransactionManager", "getByMonth", List.class, YearMonth.class);
+    private static final MethodHandle GET_BY_WEEK = App.method("TransactionManager", "getByWeek", List.class, LocalDate.class);
+    private static final MethodHandle GET_BY_ID = App.method("TransactionManager", "getTransactionById", App.type("Transaction"), String.class);
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private Object journal;
+    private Object manager;
+    private String[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        dir = Files.createTempDirectory("bench");
+        Path snapshot = dir.resolve("transactions.dat");
+        List<Object> ledger = App.ledger(size);
+        WRITE.invoke(snapshot, ledger);
+
+        journal = NEW_JOURNAL.invoke(snapshot.toString(), dir.resolve("transactions.journal").toString(), "USD");
+        manager = LOAD.invoke(journal);
+
+        // Spread lookups over the whole file so a scan cannot get lucky
+        ids = new String[1024];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (String) App.TRANSACTION_ID.invoke(ledger.get((int) ((long) i * size / ids.length)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        CLOSE.invoke(journal);
+        App.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Object getByMonth() throws Throwable {
+        return GET_BY_MONTH.invoke(manager, YearMonth.from(App.START.plusDays(App.DAYS / 2)));
+    }
+
+    @Benchmark
+    public Object getByWeek() throws Throwable {
+        return GET_BY_WEEK.invoke(manager, App.START.plusDays(App.DAYS / 2));
+    }
+
+    @Benchmark
+    public Object getTransactionById() throws Throwable {
+        return GET_BY_ID.invoke(manager, ids[next++ & (ids.length - 1)]);
+    }
+}
\ No newline at end of file
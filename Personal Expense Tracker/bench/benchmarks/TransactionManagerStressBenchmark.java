@@ -0,0 +1,164 @@
+// ==================== TransactionManagerStressBenchmark.java ====================
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One writer adding, updating and deleting while readers query the same
+ * TransactionManager without locks. Readers check that every result they get
+ * is internally consistent, and after each iteration the ledger is checked
+ * against the writer's own record of what it did (every id, the row count and
+ * the sum of all amounts), so a lost or half-applied update fails the run
+ * instead of just skewing a number.
+ *
+ * With no test suite, this doubles as the concurrency check. JMH only exits
+ * non-zero on a failed run when told to:
+ *
+ *   java -jar target/benchmarks.jar TransactionManagerStressBenchmark -foe true -p size=1000
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionManagerStressBenchmark {
+    private static final MethodHandle WRITE = App.staticMethod("TransactionFile", "write", void.class, Path.class, List.class);
+    private static final MethodHandle OPEN = App.staticMethod("SegmentedTransactionStore", "open",
+            App.type("SegmentedTransactionStore"), List.class, String.class);
+    private static final MethodHandle NEW_MANAGER = App.constructor("TransactionManager", App.type("SegmentedTransactionStore"));
+    private static final MethodHandle NEW_TRANSACTION = App.constructor("Transaction",
+            String.class, LocalDate.class, String.class, String.class, long.class, String.class, boolean.class, String.class);
+    private static final MethodHandle ADD = App.method("TransactionManager", "addTransaction", void.class, App.type("Transaction"));
+    private static final MethodHandle UPDATE = App.method("TransactionManager", "updateTransaction", App.type("Transaction"), App.type("Transaction"));
+    private static final MethodHandle DELETE = App.method("TransactionManager", "deleteTransaction", App.type("Transaction"), String.class);
+    private static final MethodHandle GET_BY_ID = App.method("TransactionManager", "getTransactionById", App.type("Transaction"), String.class);
+    private static final MethodHandle GET_BY_MONTH = App.method("TransactionManager", "getByMonth", List.class, YearMonth.class);
+    private static final MethodHandle ITERATOR = App.method("TransactionManager", "iterator", Iterator.class);
+    private static final MethodHandle DATE = App.method("Transaction", "getDate", LocalDate.class);
+    private static final MethodHandle AMOUNT = App.method("Transaction", "getAmount", long.class);
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private Object manager;
+    private YearMonth month;
+    // Sum of the amounts in the snapshot, none of which the writer touches
+    private long baseTotal;
+
+    // Only touched by the writer thread until the iteration is checked
+    private final Map<String, Object> expected = new HashMap<>();
+    private final List<String> live = new ArrayList<>();
+    private int writes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        dir = Files.createTempDirectory("bench");
+        Path snapshot = dir.resolve("transactions.dat");
+        WRITE.invoke(snapshot, App.ledger(size));
+        manager = NEW_MANAGER.invoke(OPEN.invoke(List.of(snapshot), "USD"));
+        month = YearMonth.from(App.START.plusDays(App.DAYS / 2));
+        for (Iterator<?> it = (Iterator<?>) ITERATOR.invoke(manager); it.hasNext(); ) {
+            baseTotal += (long) AMOUNT.invoke(it.next());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        App.deleteRecursively(dir);
+    }
+
+    @TearDown(Level.Iteration)
+    public void verify() throws Throwable {
+        for (Map.Entry<String, Object> entry : expected.entrySet()) {
+            Object actual = GET_BY_ID.invoke(manager, entry.getKey());
+            if (actual != entry.getValue()) {
+                throw new IllegalStateException("Lost update for " + entry.getKey() + ": expected "
+                        + entry.getValue() + ", found " + actual);
+            }
+        }
+
+        int count = 0;
+        long total = 0;
+        Set<String> seen = new HashSet<>();
+        for (Iterator<?> it = (Iterator<?>) ITERATOR.invoke(manager); it.hasNext(); count++) {
+            Object t = it.next();
+            seen.add((String) App.TRANSACTION_ID.invoke(t));
+            total += (long) AMOUNT.invoke(t);
+        }
+        if (count != seen.size() || count != size + live.size()) {
+            throw new IllegalStateException("Ledger holds " + count + " rows (" + seen.size()
+                    + " distinct), expected " + (size + live.size()));
+        }
+
+        long expectedTotal = baseTotal;
+        for (Object t : expected.values()) {
+            if (t != null) {
+                expectedTotal += (long) AMOUNT.invoke(t);
+            }
+        }
+        if (total != expectedTotal) {
+            throw new IllegalStateException("Ledger amounts sum to " + total + ", expected " + expectedTotal);
+        }
+    }
+
+    // Mostly adds into the month the readers query, with some updates and deletes of earlier adds
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void writer() throws Throwable {
+        int n = writes++;
+        LocalDate date = month.atDay(1 + n % month.lengthOfMonth());
+
+        if (n % 10 == 5 && !live.isEmpty()) {
+            String id = live.get(n % live.size());
+            Object updated = NEW_TRANSACTION.invoke(id, date, "Updated " + n, "Food", 100L + n % 100, "USD", false, (String) null);
+            UPDATE.invoke(manager, updated);
+            expected.put(id, updated);
+        } else if (n % 10 == 7 && !live.isEmpty()) {
+            String id = live.remove(live.size() - 1);
+            DELETE.invoke(manager, id);
+            expected.put(id, null);
+        } else {
+            String id = UUID.randomUUID().toString();
+            Object added = NEW_TRANSACTION.invoke(id, date, "Stress " + n, "Food", 100L + n % 100, "USD", false, (String) null);
+            ADD.invoke(manager, added);
+            expected.put(id, added);
+            live.add(id);
+        }
+    }
+
+    // A month view must come back in date order with every id at most once
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public int reader() throws Throwable {
+        List<?> rows = (List<?>) GET_BY_MONTH.invoke(manager, month);
+        Set<Object> ids = new HashSet<>();
+        LocalDate previous = LocalDate.MIN;
+        for (Object t : rows) {
+            LocalDate date = (LocalDate) DATE.invoke(t);
+            if (date.isBefore(previous) || !ids.add(App.TRANSACTION_ID.invoke(t))) {
+                throw new IllegalStateException("Inconsistent month view at " + date);
+            }
+            previous = date;
+        }
+        return rows.size();
+    }
+}
@@ -0,0 +1,209 @@
+// ==================== AggregateCache.java ====================
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Income/expense rollups per day, week (Monday start, same as getByWeek) and month.
+ * A period is computed from the TransactionManager the first time it is asked for
+ * and from then on kept up to date in O(1) as transactions are added or removed.
+ *
+ * Raw totals are kept per currency and day, so a Summary in any currency is a
+ * conversion of at most a few dozen totals at each day's rate, never a scan of
+ * the ledger. Converted summaries are remembered per currency until the period
+ * changes or new rates are set.
+ */
+public class AggregateCache {
+    private final TransactionManager transactionManager;
+    private ExchangeRates rates;
+    private final Map<LocalDate, Totals> days = new HashMap<>();
+    private final Map<LocalDate, Totals> weeks = new HashMap<>();
+    private final Map<YearMonth, Totals> months = new HashMap<>();
+
+    public AggregateCache(TransactionManager transactionManager, ExchangeRates rates) {
+        this.transactionManager = transactionManager;
+        this.rates = rates;
+    }
+
+    public Summary getDay(LocalDate date, String currency) {
+        return days.computeIfAbsent(date, d -> compute(d, d)).in(currency, rates);
+    }
+
+    public Summary getWeek(LocalDate date, String currency) {
+        return weeks.computeIfAbsent(weekStart(date), start -> compute(start, start.plusDays(6))).in(currency, rates);
+    }
+
+    public Summary getMonth(YearMonth month, String currency) {
+        return months.computeIfAbsent(month, m -> compute(m.atDay(1), m.atEndOfMonth())).in(currency, rates);
+    }
+
+    // Raw totals stay as they are; only the conversions are redone
+    public void setRates(ExchangeRates rates) {
+        this.rates = rates;
+        days.values().forEach(Totals::forgetConversions);
+        weeks.values().forEach(Totals::forgetConversions);
+        months.values().forEach(Totals::forgetConversions);
+    }
+
+    // Periods that were never requested are skipped; they are computed fresh when first needed
+    public void add(Transaction t) {
+        apply(t, 1);
+    }
+
+    public void remove(Transaction t) {
+        apply(t, -1);
+    }
+
+    private void apply(Transaction t, int sign) {
+        int epochDay = (int) t.getDate().toEpochDay();
+        Totals day = days.get(t.getDate());
+        if (day != null) day.add(epochDay, t, sign);
+
+        Totals week = weeks.get(weekStart(t.getDate()));
+        if (week != null) week.add(epochDay, t, sign);
+
+        Totals month = months.get(YearMonth.from(t.getDate()));
+        if (month != null) month.add(epochDay, t, sign);
+    }
+
+    private Totals compute(LocalDate from, LocalDate to) {
+        Totals totals = new Totals(from, to);
+        transactionManager.visitRange(from, to, (epochDay, isIncome, category, amount, currency) ->
+                totals.add(epochDay, isIncome, category, amount, currency, 1));
+        return totals;
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.minusDays(date.getDayOfWeek().getValue() - 1);
+    }
+
+    // One period's totals in the currencies the transactions were made in, one bucket per currency and day
+    private static final class Totals {
+        private final long firstDay;
+        private final int length;
+        private final Map<String, Bucket[]> byCurrency = new HashMap<>(4);
+        private final Map<String, Summary> converted = new HashMap<>(4);
+
+        Totals(LocalDate from, LocalDate to) {
+            this.firstDay = from.toEpochDay();
+            this.length = (int) (to.toEpochDay() - firstDay + 1);
+        }
+
+        void add(int epochDay, Transaction t, int sign) {
+            add(epochDay, t.isIncome(), t.getCategory(), sign * t.getAmount(), t.getCurrency(), sign);
+        }
+
+        void add(int epochDay, boolean isIncome, String category, long amount, String currency, int count) {
+            Bucket[] buckets = byCurrency.computeIfAbsent(currency, c -> new Bucket[length]);
+            int index = (int) (epochDay - firstDay);
+            Bucket bucket = buckets[index];
+            if (bucket == null) {
+                bucket = buckets[index] = new Bucket();
+            }
+
+            bucket.count += count;
+            if (isIncome) {
+                bucket.income += amount;
+            } else {
+                bucket.expense += amount;
+                bucket.categoryExpenses.computeIfAbsent(category, c -> new long[1])[0] += amount;
+            }
+            converted.clear();
+        }
+
+        void forgetConversions() {
+            converted.clear();
+        }
+
+        Summary in(String currency, ExchangeRates rates) {
+            Summary summary = converted.get(currency);
+            if (summary == null) {
+                summary = convert(currency, rates);
+                converted.put(currency, summary);
+            }
+            return summary;
+        }
+
+        private Summary convert(String currency, ExchangeRates rates) {
+            Summary summary = new Summary(currency);
+            for (Map.Entry<String, Bucket[]> entry : byCurrency.entrySet()) {
+                String from = entry.getKey();
+                boolean convertible = rates.canConvert(from, currency);
+                Bucket[] buckets = entry.getValue();
+                for (int i = 0; i < buckets.length; i++) {
+                    Bucket bucket = buckets[i];
+                    if (bucket == null) continue;
+
+                    summary.count += bucket.count;
+                    if (!convertible) {
+                        summary.unconverted += bucket.count;
+                        continue;
+                    }
+                    int epochDay = (int) (firstDay + i);
+                    summary.income += rates.convert(bucket.income, from, currency, epochDay);
+                    summary.expense += rates.convert(bucket.expense, from, currency, epochDay);
+                    for (Map.Entry<String, long[]> category : bucket.categoryExpenses.entrySet()) {
+                        summary.categoryExpenses.merge(category.getKey(),
+                                rates.convert(category.getValue()[0], from, currency, epochDay), Long::sum);
+                    }
+                }
+            }
+            return summary;
+        }
+    }
+
+    private static final class Bucket {
+        long income;
+        long expense;
+        int count;
+        final Map<String, long[]> categoryExpenses = new HashMap<>(8);
+    }
+
+    /**
+     * Totals for one period in one currency, in its minor units. Never changed
+     * once handed out, so it can be shared between threads.
+     */
+    public static class Summary {
+        private final String currency;
+        private long income;
+        private long expense;
+        private int count;
+        private int unconverted;
+        private final Map<String, Long> categoryExpenses = new HashMap<>();
+
+        private Summary(String currency) {
+            this.currency = currency;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public long getIncome() {
+            return income;
+        }
+
+        public long getExpense() {
+            return expense;
+        }
+
+        public long getNet() {
+            return income - expense;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        // Transactions left out of the amounts because there is no rate for their currency
+        public int getUnconverted() {
+            return unconverted;
+        }
+
+        public Map<String, Long> getCategoryExpenses() {
+            return Collections.unmodifiableMap(categoryExpenses);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,241 @@
+// ==================== AnalyticsEngine.java ====================
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Long-range analytics: year over year, per category and rolling twelve months.
+ *
+ * The range is split into one partition per month. Partitions are rolled up in
+ * parallel on a fork/join pool, each scanning only its own month of one ledger
+ * snapshot, and the rollups are merged pairwise on the way back up. Everything
+ * else (years, rolling windows) is built from the monthly rollups without going
+ * back to the ledger.
+ */
+public class AnalyticsEngine {
+    private final TransactionManager transactionManager;
+    private final ForkJoinPool pool;
+
+    public AnalyticsEngine(TransactionManager transactionManager) {
+        this(transactionManager, ForkJoinPool.commonPool());
+    }
+
+    public AnalyticsEngine(TransactionManager transactionManager, ForkJoinPool pool) {
+        this.transactionManager = transactionManager;
+        this.pool = pool;
+    }
+
+    /**
+     * Rolls up every month from from to to, converted into currency. The eleven
+     * months before from are rolled up as well, so the rolling window is full
+     * from the first month on; they are not part of the totals or the years.
+     */
+    public Analysis analyze(YearMonth from, YearMonth to, String currency, ExchangeRates rates) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException(from + " is after " + to);
+        }
+        YearMonth first = from.minusMonths(Analysis.WINDOW - 1);
+        Rollup[] months = new Rollup[(int) first.until(to, ChronoUnit.MONTHS) + 1];
+        Rollup total = pool.invoke(new MonthTask(transactionManager.snapshot(), first, months, 0, months.length,
+                currency, rates));
+        return new Analysis(from, to, currency, months, total);
+    }
+
+    // Rolls up months [lo, hi), filling in each month's slot, and returns the sum of those from the range proper.
+    // Serializable only because RecursiveTask is; it never leaves the pool.
+    @SuppressWarnings("serial")
+    private static final class MonthTask extends RecursiveTask<Rollup> {
+        private final TransactionManager.Snapshot snapshot;
+        private final YearMonth first;
+        private final Rollup[] months;
+        private final int lo;
+        private final int hi;
+        private final String currency;
+        private final ExchangeRates rates;
+
+        MonthTask(TransactionManager.Snapshot snapshot, YearMonth first, Rollup[] months, int lo, int hi,
+                  String currency, ExchangeRates rates) {
+            this.snapshot = snapshot;
+            this.first = first;
+            this.months = months;
+            this.lo = lo;
+            this.hi = hi;
+            this.currency = currency;
+            this.rates = rates;
+        }
+
+        @Override
+        protected Rollup compute() {
+            if (hi - lo == 1) {
+                YearMonth month = first.plusMonths(lo);
+                Rollup rollup = new Rollup(currency);
+                snapshot.visitRange(month.atDay(1), month.atEndOfMonth(), (epochDay, isIncome, category, amount, from) ->
+                        rollup.add(epochDay, isIncome, category, amount, from, rates));
+                months[lo] = rollup;
+                return lo >= Analysis.WINDOW - 1 ? rollup : null;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            MonthTask left = new MonthTask(snapshot, first, months, lo, mid, currency, rates);
+            MonthTask right = new MonthTask(snapshot, first, months, mid, hi, currency, rates);
+            left.fork();
+            Rollup rightSum = right.compute();
+            Rollup leftSum = left.join();
+            if (leftSum == null || rightSum == null) {
+                return leftSum != null ? leftSum : rightSum;
+            }
+            Rollup sum = new Rollup(currency);
+            sum.merge(leftSum);
+            sum.merge(rightSum);
+            return sum;
+        }
+    }
+
+    /**
+     * The monthly rollups of one analyze call and what is derived from them.
+     * Never changed once handed out.
+     */
+    public static final class Analysis {
+        static final int WINDOW = 12;
+
+        private final YearMonth from;
+        private final YearMonth to;
+        private final String currency;
+        private final Rollup[] months;
+        private final Rollup total;
+
+        private Analysis(YearMonth from, YearMonth to, String currency, Rollup[] months, Rollup total) {
+            this.from = from;
+            this.to = to;
+            this.currency = currency;
+            this.months = months;
+            this.total = total;
+        }
+
+        public YearMonth getFrom() {
+            return from;
+        }
+
+        public YearMonth getTo() {
+            return to;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public Rollup getTotal() {
+            return total;
+        }
+
+        public Rollup getMonth(YearMonth month) {
+            if (month.isBefore(from) || month.isAfter(to)) {
+                throw new IllegalArgumentException(month + " is outside " + from + " to " + to);
+            }
+            return months[index(month)];
+        }
+
+        // One rollup per calendar year; the first and last years hold only the months in range
+        public SortedMap<Integer, Rollup> getYears() {
+            SortedMap<Integer, Rollup> years = new TreeMap<>();
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                years.computeIfAbsent(month.getYear(), y -> new Rollup(currency)).merge(months[index(month)]);
+            }
+            return years;
+        }
+
+        // The twelve months ending with month
+        public Rollup getRolling(YearMonth month) {
+            getMonth(month);
+            Rollup window = new Rollup(currency);
+            int end = index(month);
+            for (int i = end - WINDOW + 1; i <= end; i++) {
+                window.merge(months[i]);
+            }
+            return window;
+        }
+
+        private int index(YearMonth month) {
+            return (int) from.minusMonths(WINDOW - 1).until(month, ChronoUnit.MONTHS);
+        }
+    }
+
+    /**
+     * Totals for one partition or a merge of several, in one currency's minor
+     * units. Only changed while it is being built.
+     */
+    public static final class Rollup {
+        private final String currency;
+        private long income;
+        private long expense;
+        private int count;
+        private int unconverted;
+        private final Map<String, long[]> categoryExpenses = new HashMap<>(8);
+
+        private Rollup(String currency) {
+            this.currency = currency;
+        }
+
+        private void add(int epochDay, boolean isIncome, String category, long amount, String from, ExchangeRates rates) {
+            count++;
+            if (!rates.canConvert(from, currency)) {
+                unconverted++;
+                return;
+            }
+            amount = rates.convert(amount, from, currency, epochDay);
+            if (isIncome) {
+                income += amount;
+            } else {
+                expense += amount;
+                categoryExpenses.computeIfAbsent(category, c -> new long[1])[0] += amount;
+            }
+        }
+
+        private void merge(Rollup other) {
+            income += other.income;
+            expense += other.expense;
+            count += other.count;
+            unconverted += other.unconverted;
+            for (Map.Entry<String, long[]> entry : other.categoryExpenses.entrySet()) {
+                categoryExpenses.computeIfAbsent(entry.getKey(), c -> new long[1])[0] += entry.getValue()[0];
+            }
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public long getIncome() {
+            return income;
+        }
+
+        public long getExpense() {
+            return expense;
+        }
+
+        public long getNet() {
+            return income - expense;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        // Transactions left out of the amounts because there is no rate for their currency
+        public int getUnconverted() {
+            return unconverted;
+        }
+
+        public Map<String, Long> getCategoryExpenses() {
+            Map<String, Long> expenses = new HashMap<>();
+            categoryExpenses.forEach((category, amount) -> expenses.put(category, amount[0]));
+            return Collections.unmodifiableMap(expenses);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,290 @@
+// ==================== ApiServer.java ====================
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Optional read-only HTTP/JSON API so local tools can query the ledger. Binds to
+ * loopback only.
+ *
+ *   GET /api/transactions?date=|week=|month=|from=&to=  [&offset=&limit=]
+ *   GET /api/summary?date=|week=|month=  [&currency=]   totals in the display currency by default
+ *   GET /api/search?q=  [&limit=]   words match the start of words in title, note or category
+ *   GET /api/export     every transaction, one JSON object per line (NDJSON)
+ *
+ * Dates are yyyy-MM-dd, months yyyy-MM; week= takes any day in the week.
+ *
+ * Launch with -Dsun.net.httpserver.nodelay=true (Main and Cli serve set it when
+ * it is not given): without it small responses sit in Nagle's buffer waiting
+ * for a delayed ACK, about 40 ms each.
+ */
+public class ApiServer {
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+
+    private final AppController controller;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ApiServer(AppController controller, int port) throws IOException {
+        this.controller = controller;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/transactions", exchange -> handle(exchange, this::transactions));
+        server.createContext("/api/summary", exchange -> handle(exchange, this::summary));
+        server.createContext("/api/search", exchange -> handle(exchange, this::search));
+        server.createContext("/api/export", exchange -> handle(exchange, this::export));
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("API listening on http://127.0.0.1:" + getPort() + "/api");
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    // The bound port; differs from the requested one when that was 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // One virtual thread per request where the runtime has them (Java 21+), a thread pool otherwise
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 4), r -> {
+                Thread t = new Thread(r, "api");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange, Map<String, String> query) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+            handler.handle(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (IOException e) {
+            // Usually the client going away mid-response
+            System.err.println("Error serving " + exchange.getRequestURI() + ": " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void transactions(HttpExchange exchange, Map<String, String> query) throws IOException {
+        LocalDate from;
+        LocalDate to;
+        if (query.containsKey("date")) {
+            from = to = LocalDate.parse(query.get("date"));
+        } else if (query.containsKey("week")) {
+            LocalDate date = LocalDate.parse(query.get("week"));
+            from = date.minusDays(date.getDayOfWeek().getValue() - 1);
+            to = from.plusDays(6);
+        } else if (query.containsKey("month")) {
+            YearMonth month = YearMonth.parse(query.get("month"));
+            from = month.atDay(1);
+            to = month.atEndOfMonth();
+        } else if (query.containsKey("from") && query.containsKey("to")) {
+            from = LocalDate.parse(query.get("from"));
+            to = LocalDate.parse(query.get("to"));
+        } else {
+            throw new IllegalArgumentException("Give one of date, week, month or from and to");
+        }
+        // Only the rows on the page are decoded
+        List<Transaction> rows = controller.viewRangeTransactions(from, to);
+
+        int offset = intParam(query, "offset", 0);
+        int limit = Math.min(intParam(query, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        int end = (int) Math.min((long) offset + limit, rows.size());
+
+        StringBuilder json = new StringBuilder(256 + Math.max(0, end - offset) * 160);
+        json.append("{\"total\":").append(rows.size())
+                .append(",\"offset\":").append(offset)
+                .append(",\"limit\":").append(limit)
+                .append(",\"items\":[");
+        for (int i = offset; i < end; i++) {
+            if (i > offset) json.append(',');
+            appendTransaction(json, rows.get(i));
+        }
+        json.append("]}");
+        send(exchange, 200, json);
+    }
+
+    private void summary(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String currency = query.getOrDefault("currency", controller.getSettings().getCurrency()).toUpperCase(Locale.ROOT);
+        if (!Money.isKnownCurrency(currency)) {
+            throw new IllegalArgumentException("Unknown currency " + currency);
+        }
+
+        AggregateCache.Summary summary;
+        if (query.containsKey("date")) {
+            summary = controller.getDailySummary(LocalDate.parse(query.get("date")), currency);
+        } else if (query.containsKey("week")) {
+            summary = controller.getWeeklySummary(LocalDate.parse(query.get("week")), currency);
+        } else if (query.containsKey("month")) {
+            summary = controller.getMonthlySummary(YearMonth.parse(query.get("month")), currency);
+        } else {
+            throw new IllegalArgumentException("Give one of date, week or month");
+        }
+
+        int scale = Money.scale(currency);
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"currency\":\"").append(currency).append("\",\"income\":");
+        Money.append(json, summary.getIncome(), scale).append(",\"expense\":");
+        Money.append(json, summary.getExpense(), scale).append(",\"net\":");
+        Money.append(json, summary.getNet(), scale).append(",\"count\":").append(summary.getCount())
+                .append(",\"unconverted\":").append(summary.getUnconverted())
+                .append(",\"categoryExpenses\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : summary.getCategoryExpenses().entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            appendString(json, entry.getKey()).append(':');
+            Money.append(json, entry.getValue(), scale);
+        }
+        json.append("}}");
+        send(exchange, 200, json);
+    }
+
+    private void search(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String q = query.get("q");
+        if (q == null) {
+            throw new IllegalArgumentException("Give q");
+        }
+        int limit = Math.min(intParam(query, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        List<Transaction> rows = controller.searchTransactions(q, limit);
+
+        StringBuilder json = new StringBuilder(64 + rows.size() * 160);
+        json.append("{\"items\":[");
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) json.append(',');
+            appendTransaction(json, rows.get(i));
+        }
+        json.append("]}");
+        send(exchange, 200, json);
+    }
+
+    // Streamed with chunked encoding, so the response is never held in memory as a whole
+    private void export(HttpExchange exchange, Map<String, String> query) throws IOException {
+        Iterator<Transaction> rows = controller.getTransactionIterator();
+
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 1 << 16)) {
+            StringBuilder line = new StringBuilder(256);
+            while (rows.hasNext()) {
+                line.setLength(0);
+                appendTransaction(line, rows.next()).append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    private static StringBuilder appendTransaction(StringBuilder json, Transaction t) {
+        json.append("{\"id\":");
+        appendString(json, t.getId()).append(",\"date\":\"").append(t.getDate()).append("\",\"title\":");
+        appendString(json, t.getTitle()).append(",\"category\":");
+        appendString(json, t.getCategory()).append(",\"type\":\"").append(t.getType()).append("\",\"amount\":");
+        Money.append(json, t.getAmount(), Money.scale(t.getCurrency())).append(",\"currency\":\"")
+                .append(t.getCurrency()).append("\",\"note\":");
+        return appendString(json, t.getNote()).append('}');
+    }
+
+    private static StringBuilder appendString(StringBuilder json, String value) {
+        if (value == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"');
+    }
+
+    private static void send(HttpExchange exchange, int status, CharSequence body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendString(json, message).append('}');
+        send(exchange, status, json);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static int intParam(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) return defaultValue;
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) throw new IllegalArgumentException(name + " must not be negative");
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+}
\ No newline at end of file
@@ -2,79 +2,191 @@
 import java.io.*;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Entry point to the ledger for the UI, the CLI and the API server. Transaction
+ * reads go straight to the TransactionManager, which needs no locking. Writes
+ * and the aggregate summaries are synchronized, since a write has to update the
+ * manager, the aggregates and the journal together; a summary is never changed
+ * once handed out, so callers never see one half-updated.
+ */
 public class AppController {
-    private TransactionManager transactionManager;
-    private ReportGenerator reportGenerator;
+    private volatile TransactionManager transactionManager;
     private Settings settings;
+    private TransactionJournal journal;
+    private AggregateCache aggregates;
+    private SearchIndex searchIndex;
+    private volatile ExchangeRates rates;
+    private PersistenceExecutor persistence;
+    private final EventBus events = new EventBus();
+    private final Path settingsFile;
+    private final Path ratesFile;
     private static final String TRANSACTIONS_FILE = "transactions.dat";
+    private static final String JOURNAL_FILE = "transactions.journal";
     private static final String SETTINGS_FILE = "settings.dat";
+    private static final String RATES_FILE = "rates.csv";
 
     public AppController() {
-        this.transactionManager = new TransactionManager();
-        this.reportGenerator = new ReportGenerator();
-        this.settings = Settings.load();
-        loadTransactions();
+        this(Paths.get(""));
+    }
+
+    // Keeps its data files in the given directory instead of the working directory
+    public AppController(Path dataDir) {
+        this.settingsFile = dataDir.resolve(SETTINGS_FILE);
+        this.settings = Settings.load(settingsFile);
+        this.ratesFile = dataDir.resolve(RATES_FILE);
+        this.rates = loadRates();
+        this.persistence = new PersistenceExecutor();
+        this.journal = new TransactionJournal(dataDir.resolve(TRANSACTIONS_FILE).toString(),
+                dataDir.resolve(JOURNAL_FILE).toString(), settings.getBaseCurrency());
+        this.transactionManager = journal.load();
+        this.aggregates = new AggregateCache(transactionManager, rates);
+        this.searchIndex = SearchIndex.open(transactionManager);
+    }
+
+    private ExchangeRates loadRates() {
+        try {
+            return ExchangeRates.load(ratesFile);
+        } catch (IOException e) {
+            System.err.println("Error loading exchange rates: " + e.getMessage());
+            return ExchangeRates.none();
+        }
     }
 
     public Settings getSettings() {
         return settings;
     }
 
-    public void addTransaction(String id, LocalDate date, String title, String category, double amount, boolean isIncome, String note) {
-        Transaction transaction = new Transaction(id, date, title, category, amount, isIncome, note);
+    // Every change to the ledger, the display currency, the rates or the budget is published here
+    public EventBus getEvents() {
+        return events;
+    }
+
+    // amount is in minor units of currency (see Money)
+    public synchronized void addTransaction(String id, LocalDate date, String title, String category, long amount, String currency, boolean isIncome, String note) {
+        Transaction transaction = new Transaction(id, date, title, category, amount, currency, isIncome, note);
         transactionManager.addTransaction(transaction);
+        aggregates.add(transaction);
+        searchIndex.add(transaction);
 
-        if (!isIncome) {
-            settings.addSpent(amount);
-            settings.save();
-        }
+        journal.recordAdd(transaction);
+        scheduleJournalFlush();
 
-        saveTransactions();
+        events.publish(new LedgerEvent.TransactionAdded(List.of(transaction)));
     }
 
-    public void updateTransaction(String id, LocalDate date, String title, String category, double amount, boolean isIncome, String note) {
-        Transaction oldTransaction = transactionManager.getTransactionById(id);
-
-        if (oldTransaction != null && !oldTransaction.isIncome()) {
-            settings.subtractSpent(oldTransaction.getAmount());
-        }
+    public synchronized void updateTransaction(String id, LocalDate date, String title, String category, long amount, String currency, boolean isIncome, String note) {
+        Transaction transaction = new Transaction(id, date, title, category, amount, currency, isIncome, note);
+        Transaction oldTransaction = transactionManager.updateTransaction(transaction);
+        if (oldTransaction == null) return;
 
-        Transaction transaction = new Transaction(id, date, title, category, amount, isIncome, note);
-        transactionManager.updateTransaction(transaction);
+        aggregates.remove(oldTransaction);
+        aggregates.add(transaction);
+        searchIndex.remove(oldTransaction);
+        searchIndex.add(transaction);
 
-        if (!isIncome) {
-            settings.addSpent(amount);
-        }
-        settings.save();
+        journal.recordUpdate(oldTransaction, transaction);
+        scheduleJournalFlush();
 
-        saveTransactions();
+        events.publish(new LedgerEvent.TransactionUpdated(oldTransaction, transaction));
     }
 
-    public void deleteTransaction(String id) {
-        Transaction transaction = transactionManager.getTransactionById(id);
-        if (transaction != null && !transaction.isIncome()) {
-            settings.subtractSpent(transaction.getAmount());
-            settings.save();
-        }
-        transactionManager.deleteTransaction(id);
+    public synchronized void deleteTransaction(String id) {
+        Transaction transaction = transactionManager.deleteTransaction(id);
+        if (transaction == null) return;
+
+        aggregates.remove(transaction);
+        searchIndex.remove(transaction);
 
-        saveTransactions();
+        journal.recordDelete(transaction);
+        scheduleJournalFlush();
+
+        events.publish(new LedgerEvent.TransactionDeleted(transaction));
     }
 
     // NEW METHOD: Wipe all data
-    public void clearAllData() {
-        File tFile = new File(TRANSACTIONS_FILE);
-        if (tFile.exists()) tFile.delete();
+    public synchronized void clearAllData() {
+        persistence.cancelPending();
+        journal.delete();
 
-        File sFile = new File(SETTINGS_FILE);
+        File sFile = settingsFile.toFile();
         if (sFile.exists()) sFile.delete();
 
         transactionManager = new TransactionManager();
+        aggregates = new AggregateCache(transactionManager, rates);
+        searchIndex = SearchIndex.open(transactionManager);
         settings = new Settings();
     }
 
+    /**
+     * Changes the currency totals are shown in. The budget is converted at
+     * today's rate; summaries are converted from the cached per-day totals, so
+     * nothing is re-read from the ledger.
+     */
+    public synchronized void setDisplayCurrency(String currency) {
+        String previous = settings.getCurrency();
+        if (previous.equals(currency)) return;
+
+        if (rates.canConvert(previous, currency)) {
+            settings.setBudget(rates.convert(settings.getBudget(), previous, currency, (int) LocalDate.now().toEpochDay()));
+        }
+        settings.setCurrency(currency);
+        saveSettings();
+        events.publish(new LedgerEvent.CurrencyChanged(currency));
+    }
+
+    // In minor units of the display currency; 0 means no budget
+    public synchronized void setBudget(long budget) {
+        settings.setBudget(budget);
+        saveSettings();
+        events.publish(new LedgerEvent.BudgetChanged(budget));
+    }
+
+    public ExchangeRates getRates() {
+        return rates;
+    }
+
+    // Re-reads rates.csv; keeps the current rates if the file has errors
+    public synchronized boolean reloadRates() {
+        try {
+            rates = ExchangeRates.load(ratesFile);
+        } catch (IOException e) {
+            System.err.println("Error loading exchange rates: " + e.getMessage());
+            return false;
+        }
+        aggregates.setRates(rates);
+        events.publish(new LedgerEvent.CurrencyChanged(settings.getCurrency()));
+        return true;
+    }
+
+    // Settings are copied so later edits on the UI thread don't race the background write
+    public void saveSettings() {
+        Settings copy = settings.copy();
+        persistence.submit("settings", () -> copy.save(settingsFile));
+    }
+
+    // Writes out anything still pending; call before the application exits
+    public void shutdown() {
+        persistence.shutdown();
+        journal.close();
+    }
+
+    // The budget covers the current month; spending comes straight from the ledger
+    public synchronized long getBudgetSpent() {
+        return aggregates.getMonth(YearMonth.now(), settings.getCurrency()).getExpense();
+    }
+
+    public long getBudgetRemaining() {
+        return settings.getBudget() - getBudgetSpent();
+    }
+
     public Transaction getTransactionById(String id) {
         return transactionManager.getTransactionById(id);
     }
@@ -91,37 +203,154 @@ public class AppController {
         return transactionManager.getByMonth(month);
     }
 
-    public void exportCSV(List<Transaction> list, String filePath) {
-        reportGenerator.exportToCSV(list, filePath);
+    public List<Transaction> getRangeTransactions(LocalDate from, LocalDate to) {
+        return transactionManager.getByRange(from, to);
     }
 
-    public void exportTXT(List<Transaction> list, String filePath) {
-        reportGenerator.exportToTXT(list, filePath);
+    // The same rows, decoded only as they are read; for views that show a page at a time
+    public List<Transaction> viewRangeTransactions(LocalDate from, LocalDate to) {
+        return transactionManager.viewRange(from, to);
     }
 
-    public List<Transaction> getAllTransactions() {
-        return transactionManager.getAllTransactions();
+    // Every transaction, in getAllTransactions order, decoded only as it is read
+    public TransactionManager.LedgerView viewAllTransactions() {
+        return transactionManager.viewAll();
     }
 
-    private void saveTransactions() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(TRANSACTIONS_FILE))) {
-            oos.writeObject(transactionManager.getAllTransactions());
-        } catch (IOException e) {
-            System.err.println("Error saving transactions: " + e.getMessage());
+    // Summaries are in the display currency unless one is given
+    public AggregateCache.Summary getDailySummary(LocalDate date) {
+        return getDailySummary(date, settings.getCurrency());
+    }
+
+    public synchronized AggregateCache.Summary getDailySummary(LocalDate date, String currency) {
+        return aggregates.getDay(date, currency);
+    }
+
+    public AggregateCache.Summary getWeeklySummary(LocalDate date) {
+        return getWeeklySummary(date, settings.getCurrency());
+    }
+
+    public synchronized AggregateCache.Summary getWeeklySummary(LocalDate date, String currency) {
+        return aggregates.getWeek(date, currency);
+    }
+
+    public AggregateCache.Summary getMonthlySummary(YearMonth month) {
+        return getMonthlySummary(month, settings.getCurrency());
+    }
+
+    public synchronized AggregateCache.Summary getMonthlySummary(YearMonth month, String currency) {
+        return aggregates.getMonth(month, currency);
+    }
+
+    /**
+     * Year-over-year, category and rolling analytics over every month that has
+     * transactions, in the display currency. Computed in parallel from one
+     * snapshot of the ledger, so it needs no lock.
+     */
+    public AnalyticsEngine.Analysis getAnalysis() {
+        TransactionManager.Snapshot snapshot = transactionManager.snapshot();
+        LocalDate first = snapshot.firstDate();
+        LocalDate last = snapshot.lastDate();
+        if (first == null) {
+            return getAnalysis(YearMonth.now(), YearMonth.now());
         }
+        return getAnalysis(YearMonth.from(first), YearMonth.from(last));
+    }
+
+    public AnalyticsEngine.Analysis getAnalysis(YearMonth from, YearMonth to) {
+        return new AnalyticsEngine(transactionManager).analyze(from, to, settings.getCurrency(), rates);
+    }
+
+    // Up to limit transactions whose title, note or category has words starting with each word of query, newest first
+    public synchronized List<Transaction> searchTransactions(String query, int limit) {
+        return searchIndex.search(query, limit);
     }
 
-    private void loadTransactions() {
-        File file = new File(TRANSACTIONS_FILE);
-        if (file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                List<Transaction> transactions = (List<Transaction>) ois.readObject();
-                for (Transaction t : transactions) {
-                    transactionManager.addTransaction(t);
-                }
-            } catch (Exception e) {
-                System.err.println("Error loading transactions: " + e.getMessage());
+    public void exportCSV(List<Transaction> list, String filePath) {
+        reports().exportToCSV(list, filePath);
+    }
+
+    /**
+     * Imports a delimited file in one batch: rows whose id is already in the
+     * ledger are skipped, the rest are added together and journaled with a
+     * single flush.
+     */
+    public TransactionImporter.Result importTransactions(String filePath, TransactionImporter.ColumnMapping mapping) throws IOException {
+        // Parsing touches no shared state, so readers are only held up while rows go in
+        TransactionImporter.Result result = new TransactionImporter(settings.getCurrency()).parse(Paths.get(filePath), mapping);
+
+        Set<String> ids = new HashSet<>();
+        for (Transaction t : result.getTransactions()) {
+            ids.add(t.getId());
+        }
+
+        synchronized (this) {
+            result.markExisting(transactionManager.findExisting(ids));
+
+            List<Transaction> added = result.getTransactions();
+            for (Transaction t : added) {
+                transactionManager.addTransaction(t);
+                aggregates.add(t);
+                searchIndex.add(t);
+                journal.recordAdd(t);
+            }
+            result.setImported(added.size());
+            if (added.isEmpty()) {
+                return result;
             }
+            scheduleJournalFlush();
+
+            events.publish(new LedgerEvent.TransactionAdded(added));
+        }
+        return result;
+    }
+
+    public void exportAllCSV(String filePath) {
+        reports().exportToCSV(transactionManager.iterator(), filePath);
+    }
+
+    // Folds the journal into the month segments right away instead of waiting for the threshold
+    public synchronized void compact() throws IOException {
+        journal.compactNow(transactionManager.snapshot());
+        searchIndex.prune();
+    }
+
+    public void exportAllTXT(String filePath) {
+        reports().exportToTXT(transactionManager.iterator(), filePath);
+    }
+
+    public void writeAllCSV(WritableByteChannel out) throws IOException {
+        reports().writeCSV(transactionManager.iterator(), out);
+    }
+
+    public void writeAllTXT(PrintWriter out) {
+        reports().writeTXT(transactionManager.iterator(), out);
+    }
+
+    public boolean hasTransactions() {
+        return !transactionManager.isEmpty();
+    }
+
+    // Made per export so totals follow the display currency and rates currently set
+    private ReportGenerator reports() {
+        return new ReportGenerator(settings.getCurrency(), rates);
+    }
+
+    // A consistent snapshot of the ledger, decoded lazily as it is walked
+    public Iterator<Transaction> getTransactionIterator() {
+        return transactionManager.iterator();
+    }
+
+    public List<Transaction> getAllTransactions() {
+        return transactionManager.getAllTransactions();
+    }
+
+    private void scheduleJournalFlush() {
+        persistence.submit("journal", journal::flushPending);
+        if (journal.needsCompaction()) {
+            // The snapshot pins the current version of the ledger; months are read on the compactor thread
+            journal.compact(transactionManager.snapshot());
+            searchIndex.prune();
         }
     }
 }
\ No newline at end of file
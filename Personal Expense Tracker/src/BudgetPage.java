@@ -4,6 +4,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import java.time.YearMonth;
 
 public class BudgetPage extends BorderPane {
     private AppController controller;
@@ -11,7 +12,7 @@ public class BudgetPage extends BorderPane {
     private Label spentLabel;
     private Label remainingLabel;
     private ProgressBar progressBar;
-    private Runnable onBudgetUpdate;
+    private PageRefresher refresher;
 
     public BudgetPage(AppController controller) {
         this.controller = controller;
@@ -72,31 +73,28 @@ public class BudgetPage extends BorderPane {
         setCenter(container);
 
         updateDisplay();
-    }
 
-    public void setOnBudgetUpdate(Runnable callback) {
-        this.onBudgetUpdate = callback;
+        // Only the current month counts towards the budget
+        refresher = new PageRefresher(this, this::updateDisplay);
+        controller.getEvents().subscribe(LedgerEvent.class, event -> {
+            if (event.affects(YearMonth.now())) {
+                refresher.markDirty();
+            }
+        });
     }
 
     private void setBudget() {
         try {
-            double budget = Double.parseDouble(budgetField.getText().trim());
+            long budget = Money.parse(budgetField.getText().trim(), controller.getSettings().getScale());
 
             if (budget <= 0) {
                 showAlert(Alert.AlertType.ERROR, "Error", "Budget must be positive!");
                 return;
             }
 
-            Settings settings = controller.getSettings();
-            settings.setBudget(budget);
-            settings.save();
+            controller.setBudget(budget);
 
             showAlert(Alert.AlertType.INFORMATION, "Success", "Budget set successfully!");
-            updateDisplay();
-
-            if (onBudgetUpdate != null) {
-                onBudgetUpdate.run();
-            }
 
         } catch (NumberFormatException e) {
             showAlert(Alert.AlertType.ERROR, "Error", "Please enter a valid number!");
@@ -107,20 +105,12 @@ public class BudgetPage extends BorderPane {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
         confirm.setTitle("Reset Budget");
         confirm.setHeaderText("Are you sure?");
-        confirm.setContentText("This will reset your budget and spent amount.");
+        confirm.setContentText("This will reset your budget.");
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                Settings settings = controller.getSettings();
-                settings.setBudget(0);
-                settings.setSpent(0);
-                settings.save();
+                controller.setBudget(0);
                 budgetField.clear();
-                updateDisplay();
-
-                if (onBudgetUpdate != null) {
-                    onBudgetUpdate.run();
-                }
             }
         });
     }
@@ -129,16 +119,17 @@ public class BudgetPage extends BorderPane {
         Settings settings = controller.getSettings();
         String symbol = settings.getCurrencySymbol();
 
-        double budget = settings.getBudget();
-        double spent = settings.getSpent();
-        double remaining = settings.getRemaining();
+        int scale = settings.getScale();
+        long budget = settings.getBudget();
+        long spent = controller.getBudgetSpent();
+        long remaining = controller.getBudgetRemaining();
 
         if (budget > 0) {
-            budgetField.setText(String.valueOf(budget));
-            spentLabel.setText(String.format("Spent: %s%.2f", symbol, spent));
-            remainingLabel.setText(String.format("Remaining: %s%.2f", symbol, remaining));
+            budgetField.setText(Money.format(budget, scale));
+            spentLabel.setText("Spent: " + symbol + Money.format(spent, scale));
+            remainingLabel.setText("Remaining: " + symbol + Money.format(remaining, scale));
 
-            double progress = Math.min(spent / budget, 1.0);
+            double progress = Math.min((double) spent / budget, 1.0);
             progressBar.setProgress(progress);
 
             if (progress >= 1.0) {
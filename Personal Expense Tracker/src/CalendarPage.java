@@ -6,12 +6,12 @@ import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.util.List;
 
 public class CalendarPage extends BorderPane {
     private AppController controller;
-    private TextArea displayArea;
+    private ReportView monthView;
     private DatePicker datePicker;
+    private PageRefresher refresher;
 
     public CalendarPage(AppController controller) {
         this.controller = controller;
@@ -47,71 +47,31 @@ public class CalendarPage extends BorderPane {
 
         setTop(topPanel);
 
-        displayArea = new TextArea();
-        displayArea.setEditable(false);
-        displayArea.setFont(Font.font("Monospaced", 12));
-        displayArea.setWrapText(true);
-        setCenter(displayArea);
+        monthView = new ReportView();
+        setCenter(monthView);
 
         displayCalendar();
-    }
-
-    public void displayCalendar() {
-        LocalDate selectedDate = datePicker.getValue();
-        if (selectedDate == null) {
-            selectedDate = LocalDate.now();
-        }
-
-        Settings settings = controller.getSettings();
-        String symbol = settings.getCurrencySymbol();
-
-        YearMonth yearMonth = YearMonth.from(selectedDate);
-        List<Transaction> transactions = controller.getMonthlyTransactions(yearMonth);
-
-        StringBuilder sb = new StringBuilder();
-        sb.append(String.format("╔════════════════════════════════════════════════╗\n"));
-        sb.append(String.format("║  %s %d - Monthly Summary%s║\n",
-                yearMonth.getMonth(),
-                yearMonth.getYear(),
-                " ".repeat(Math.max(0, 17 - yearMonth.getMonth().toString().length()))));
-        sb.append(String.format("╚════════════════════════════════════════════════╝\n\n"));
 
-        if (transactions.isEmpty()) {
-            sb.append("📝 No transactions for this month.\n");
-        } else {
-            sb.append(String.format("%-12s %-20s %-15s %-12s\n",
-                    "Date", "Title", "Category", "Amount"));
-            sb.append("─".repeat(80)).append("\n");
-
-            for (Transaction t : transactions) {
-                String typeIcon = t.isIncome() ? "💰" : "💸";
-                sb.append(String.format("%-12s %s %-18s %s %-12s %s%-11.2f\n",
-                        t.getFormattedDate(),
-                        typeIcon,
-                        t.getTitle(),
-                        t.getCategoryIcon(),
-                        t.getCategory(),
-                        symbol,
-                        t.getAmount()));
+        refresher = new PageRefresher(this, this::displayCalendar);
+        controller.getEvents().subscribe(LedgerEvent.TransactionEvent.class, event -> {
+            if (event.affects(shownMonth())) {
+                refresher.markDirty();
             }
+        });
+        controller.getEvents().subscribe(LedgerEvent.CurrencyChanged.class, event -> refresher.markDirty());
+    }
 
-            double totalIncome = transactions.stream()
-                    .filter(Transaction::isIncome)
-                    .mapToDouble(Transaction::getAmount)
-                    .sum();
-            double totalExpense = transactions.stream()
-                    .filter(t -> !t.isIncome())
-                    .mapToDouble(Transaction::getAmount)
-                    .sum();
-
-            sb.append("\n");
-            sb.append("═".repeat(80)).append("\n");
-            sb.append(String.format("💰 Total Income:   %s%.2f\n", symbol, totalIncome));
-            sb.append(String.format("💸 Total Expense:  %s%.2f\n", symbol, totalExpense));
-            sb.append(String.format("📊 Net Balance:    %s%.2f\n", symbol, totalIncome - totalExpense));
-            sb.append("═".repeat(80)).append("\n");
-        }
+    private YearMonth shownMonth() {
+        LocalDate selectedDate = datePicker.getValue();
+        return YearMonth.from(selectedDate != null ? selectedDate : LocalDate.now());
+    }
 
-        displayArea.setText(sb.toString());
+    public void displayCalendar() {
+        YearMonth yearMonth = shownMonth();
+        AggregateCache.Summary summary = controller.getMonthlySummary(yearMonth);
+        monthView.show(ReportGenerator.formatMonthlyTitle(yearMonth), ReportGenerator.MONTHLY_HEADING,
+                controller.viewRangeTransactions(yearMonth.atDay(1), yearMonth.atEndOfMonth()),
+                ReportGenerator::formatMonthlyRow, ReportGenerator.formatMonthlyTotals(summary),
+                "📝 No transactions for this month.");
     }
 }
@@ -0,0 +1,261 @@
+// ==================== Cli.java ====================
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless entry point for scripts and cron jobs. Works on the data files in the
+ * current directory, same as the GUI, and never touches JavaFX, so it starts
+ * without a display:
+ *
+ *   java -cp <classes> Cli report daily|weekly [yyyy-MM-dd]
+ *   java -cp <classes> Cli report monthly [yyyy-MM]
+ *   java -cp <classes> Cli export csv|txt [file]
+ *   java -cp <classes> Cli import <file> [--delimiter c] [--date-format pattern]
+ *                                        [--decimal c] [--grouping c]
+ *                                        [--no-header] [--column field=name|index]...
+ *   java -cp <classes> Cli compact
+ *   java -cp <classes> Cli serve [port]
+ *
+ * Reports and exports without a file are streamed to stdout.
+ */
+public class Cli {
+    private static final int EXIT_ERROR = 1;
+    private static final int EXIT_USAGE = 2;
+    private static final int DEFAULT_API_PORT = 8787;
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            usage();
+            System.exit(EXIT_USAGE);
+        }
+
+        AppController controller = new AppController();
+        int status;
+        try {
+            status = run(controller, args);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            status = EXIT_ERROR;
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            System.err.println("Invalid argument: " + e.getMessage());
+            status = EXIT_USAGE;
+        } finally {
+            controller.shutdown();
+        }
+        System.exit(status);
+    }
+
+    private static int run(AppController controller, String[] args) throws IOException {
+        switch (args[0]) {
+            case "report":
+                return report(controller, args);
+            case "export":
+                return export(controller, args);
+            case "import":
+                return importFile(controller, args);
+            case "compact":
+                controller.compact();
+                System.out.println("Compacted transactions.");
+                return 0;
+            case "serve":
+                return serve(controller, args);
+            default:
+                usage();
+                return EXIT_USAGE;
+        }
+    }
+
+    private static int report(AppController controller, String[] args) {
+        if (args.length < 2) {
+            usage();
+            return EXIT_USAGE;
+        }
+
+        PrintWriter out = stdout();
+        switch (args[1]) {
+            case "daily": {
+                LocalDate date = args.length > 2 ? LocalDate.parse(args[2]) : LocalDate.now();
+                ReportGenerator.writeReport("Daily Report - " + date,
+                        controller.getDailyTransactions(date), controller.getDailySummary(date), out);
+                break;
+            }
+            case "weekly": {
+                LocalDate date = args.length > 2 ? LocalDate.parse(args[2]) : LocalDate.now();
+                ReportGenerator.writeReport("Weekly Report (Week of " + date + ")",
+                        controller.getWeeklyTransactions(date), controller.getWeeklySummary(date), out);
+                break;
+            }
+            case "monthly": {
+                YearMonth month = args.length > 2 ? YearMonth.parse(args[2]) : YearMonth.now();
+                ReportGenerator.writeReport("Monthly Report - " + month,
+                        controller.getMonthlyTransactions(month), controller.getMonthlySummary(month), out);
+                break;
+            }
+            default:
+                usage();
+                return EXIT_USAGE;
+        }
+        out.flush();
+        return 0;
+    }
+
+    private static int export(AppController controller, String[] args) throws IOException {
+        if (args.length < 2 || !(args[1].equals("csv") || args[1].equals("txt"))) {
+            usage();
+            return EXIT_USAGE;
+        }
+        boolean csv = args[1].equals("csv");
+
+        if (args.length > 2) {
+            if (csv) {
+                controller.exportAllCSV(args[2]);
+            } else {
+                controller.exportAllTXT(args[2]);
+            }
+            return 0;
+        }
+
+        if (csv) {
+            WritableByteChannel out = Channels.newChannel(new FileOutputStream(FileDescriptor.out));
+            controller.writeAllCSV(out);
+        } else {
+            PrintWriter out = stdout();
+            controller.writeAllTXT(out);
+            out.flush();
+        }
+        return 0;
+    }
+
+    private static int importFile(AppController controller, String[] args) throws IOException {
+        if (args.length < 2) {
+            usage();
+            return EXIT_USAGE;
+        }
+
+        char delimiter = ',';
+        char decimal = '.';
+        char grouping = 0;
+        String dateFormat = null;
+        boolean header = true;
+        List<String[]> columns = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--delimiter":
+                    delimiter = charValue(args, ++i);
+                    break;
+                case "--decimal":
+                    decimal = charValue(args, ++i);
+                    break;
+                case "--grouping":
+                    grouping = charValue(args, ++i);
+                    break;
+                case "--date-format":
+                    dateFormat = value(args, ++i);
+                    break;
+                case "--no-header":
+                    header = false;
+                    break;
+                case "--column":
+                    String[] column = value(args, ++i).split("=", 2);
+                    if (column.length != 2) {
+                        throw new IllegalArgumentException("expected field=column, got " + args[i]);
+                    }
+                    columns.add(column);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        // Without --column the file is taken to be one of our own CSV exports
+        TransactionImporter.ColumnMapping mapping = columns.isEmpty()
+                ? TransactionImporter.ColumnMapping.exportedCsv()
+                : new TransactionImporter.ColumnMapping();
+        for (String[] column : columns) {
+            if (column[1].chars().allMatch(Character::isDigit)) {
+                mapping.column(column[0], Integer.parseInt(column[1]));
+            } else {
+                mapping.column(column[0], column[1]);
+            }
+        }
+        mapping.delimiter(delimiter).header(header).decimalSeparator(decimal).groupingSeparator(grouping);
+        if (dateFormat != null) {
+            mapping.dateFormat(dateFormat);
+        }
+
+        TransactionImporter.Result result = controller.importTransactions(args[1], mapping);
+        for (String error : result.getErrors()) {
+            System.err.println(error);
+        }
+        System.out.println("Imported " + result.getImported() + " transactions, skipped "
+                + result.getDuplicates() + " duplicates, " + result.getErrors().size() + " rows with errors.");
+        return result.getErrors().isEmpty() ? 0 : EXIT_ERROR;
+    }
+
+    // Runs the API server until the process is stopped
+    private static int serve(AppController controller, String[] args) throws IOException {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_API_PORT;
+        // See ApiServer; read once when the HTTP server classes load
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        ApiServer server = new ApiServer(controller, port);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            controller.shutdown();
+        }));
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        }
+        return args[i];
+    }
+
+    // One character, or \t for a tab
+    private static char charValue(String[] args, int i) {
+        String value = value(args, i);
+        if (value.equals("\\t")) {
+            return '\t';
+        }
+        if (value.length() != 1) {
+            throw new IllegalArgumentException(args[i - 1] + " takes one character or \\t, got \"" + value + "\"");
+        }
+        return value.charAt(0);
+    }
+
+    private static PrintWriter stdout() {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 16));
+    }
+
+    private static void usage() {
+        System.err.println("Usage: Cli report daily|weekly [yyyy-MM-dd]");
+        System.err.println("       Cli report monthly [yyyy-MM]");
+        System.err.println("       Cli export csv|txt [file]");
+        System.err.println("       Cli import <file> [--delimiter c] [--date-format pattern]");
+        System.err.println("                         [--decimal c] [--grouping c] [--no-header] [--column field=name|index]...");
+        System.err.println("       Cli compact");
+        System.err.println("       Cli serve [port]");
+    }
+}
\ No newline at end of file
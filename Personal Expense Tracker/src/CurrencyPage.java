@@ -12,9 +12,9 @@ public class CurrencyPage extends BorderPane {
     private ComboBox<String> currencyCombo;
     private Label currentCurrencyLabel;
     private Label symbolLabel;
-    private Runnable onCurrencyChange;
+    private Label ratesLabel;
 
-    private static final List<String> CURRENCIES = Arrays.asList(
+    static final List<String> CURRENCIES = Arrays.asList(
             "USD", "PKR", "SAR", "EUR", "INR", "GBP"
     );
 
@@ -61,21 +61,29 @@ public class CurrencyPage extends BorderPane {
 
         selectionBox.getChildren().addAll(selectLabel, currencyCombo, applyButton);
 
-        Label noteLabel = new Label("Note: Changing currency will update all transaction displays");
+        ratesLabel = new Label();
+        ratesLabel.setFont(Font.font("Arial", 12));
+        ratesLabel.setWrapText(true);
+
+        Button reloadButton = new Button("Reload Rates");
+        reloadButton.setOnAction(e -> reloadRates());
+
+        VBox ratesBox = new VBox(10, ratesLabel, reloadButton);
+        ratesBox.setAlignment(Pos.CENTER);
+
+        Label noteLabel = new Label("Note: Totals, reports and the budget are shown in this currency. "
+                + "Each transaction keeps its own currency and is converted with the rates in rates.csv");
+        noteLabel.setWrapText(true);
         noteLabel.setFont(Font.font("Arial", 11));
         noteLabel.setStyle("-fx-text-fill: #666;");
 
-        container.getChildren().addAll(titleLabel, infoBox, selectionBox, noteLabel);
+        container.getChildren().addAll(titleLabel, infoBox, selectionBox, ratesBox, noteLabel);
 
         setCenter(container);
 
         updateDisplay();
     }
 
-    public void setOnCurrencyChange(Runnable callback) {
-        this.onCurrencyChange = callback;
-    }
-
     private void applyCurrency() {
         String selectedCurrency = currencyCombo.getValue();
 
@@ -84,18 +92,12 @@ public class CurrencyPage extends BorderPane {
             return;
         }
 
-        Settings settings = controller.getSettings();
-        settings.setCurrency(selectedCurrency);
-        settings.save();
+        controller.setDisplayCurrency(selectedCurrency);
 
         showAlert(Alert.AlertType.INFORMATION, "Success",
                 "Currency changed to " + selectedCurrency + " successfully!");
 
         updateDisplay();
-
-        if (onCurrencyChange != null) {
-            onCurrencyChange.run();
-        }
     }
 
     public void updateDisplay() {
@@ -106,6 +108,22 @@ public class CurrencyPage extends BorderPane {
         currentCurrencyLabel.setText(currency);
         symbolLabel.setText(symbol);
         currencyCombo.setValue(currency);
+
+        ExchangeRates rates = controller.getRates();
+        if (rates.getLineCount() == 0) {
+            ratesLabel.setText("No conversion rates loaded; only amounts already in " + currency + " are totalled");
+        } else {
+            ratesLabel.setText("Rates: " + rates.getLineCount() + " entries for " + String.join(", ", rates.getCurrencies())
+                    + ", latest " + rates.getLatestDate());
+        }
+    }
+
+    private void reloadRates() {
+        if (!controller.reloadRates()) {
+            showAlert(Alert.AlertType.ERROR, "Error", "Could not read rates.csv; keeping the previous rates");
+            return;
+        }
+        updateDisplay();
     }
 
     private void showAlert(Alert.AlertType type, String title, String message) {
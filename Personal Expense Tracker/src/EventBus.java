@@ -0,0 +1,39 @@
+// ==================== EventBus.java ====================
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Typed publish/subscribe for {@link LedgerEvent}s. A subscriber gets every
+ * event of the type it subscribed to, subtypes included, on the thread that
+ * published it, in the order subscribers were added.
+ */
+public class EventBus {
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+    public <E extends LedgerEvent> void subscribe(Class<E> type, Consumer<? super E> subscriber) {
+        subscriptions.add(new Subscription<>(type, subscriber));
+    }
+
+    public void publish(LedgerEvent event) {
+        for (Subscription<?> subscription : subscriptions) {
+            subscription.deliver(event);
+        }
+    }
+
+    private static final class Subscription<E extends LedgerEvent> {
+        final Class<E> type;
+        final Consumer<? super E> subscriber;
+
+        Subscription(Class<E> type, Consumer<? super E> subscriber) {
+            this.type = type;
+            this.subscriber = subscriber;
+        }
+
+        void deliver(LedgerEvent event) {
+            if (type.isInstance(event)) {
+                subscriber.accept(type.cast(event));
+            }
+        }
+    }
+}
\ No newline at end of file
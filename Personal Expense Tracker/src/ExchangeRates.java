@@ -0,0 +1,149 @@
+// ==================== ExchangeRates.java ====================
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Dated conversion rates, read from a local file with one line per currency and day:
+ *
+ *   Date,Currency,Rate
+ *   2024-05-01,EUR,0.9312
+ *
+ * Rate is how many units of the currency one US dollar bought that day; USD
+ * itself is always 1. A day without a line uses the last rate before it (or
+ * the first one, for days before any). On load each currency's rates are
+ * spread out to one slot per day, so looking up a day's rate is an array index.
+ * Instances never change; new rates mean loading a new table.
+ */
+public class ExchangeRates {
+    private static final String PIVOT = Money.DEFAULT_CURRENCY;
+    private static final ExchangeRates NONE = new ExchangeRates(Collections.emptyMap(), 0, null);
+
+    private final Map<String, DailyRates> byCurrency;
+    private final int lineCount;
+    private final LocalDate latestDate;
+
+    private ExchangeRates(Map<String, DailyRates> byCurrency, int lineCount, LocalDate latestDate) {
+        this.byCurrency = byCurrency;
+        this.lineCount = lineCount;
+        this.latestDate = latestDate;
+    }
+
+    // Only same-currency conversions
+    public static ExchangeRates none() {
+        return NONE;
+    }
+
+    public static ExchangeRates load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return NONE;
+        }
+
+        Map<String, TreeMap<Integer, Double>> rates = new HashMap<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        int lineCount = 0;
+        int latest = Integer.MIN_VALUE;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#") || (i == 0 && line.toLowerCase(Locale.ROOT).startsWith("date"))) {
+                continue;
+            }
+
+            String[] fields = line.split(",");
+            try {
+                if (fields.length != 3) throw new IllegalArgumentException("expected Date,Currency,Rate");
+                int day = (int) LocalDate.parse(fields[0].trim()).toEpochDay();
+                String currency = fields[1].trim().toUpperCase(Locale.ROOT);
+                double rate = Double.parseDouble(fields[2].trim());
+                if (!Money.isKnownCurrency(currency)) throw new IllegalArgumentException("unknown currency " + currency);
+                if (!(rate > 0) || Double.isInfinite(rate)) throw new IllegalArgumentException("rate must be positive");
+
+                rates.computeIfAbsent(currency, c -> new TreeMap<>()).put(day, rate);
+                latest = Math.max(latest, day);
+                lineCount++;
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IOException(file.getFileName() + " line " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+
+        Map<String, DailyRates> byCurrency = new HashMap<>();
+        rates.forEach((currency, byDay) -> byCurrency.put(currency, new DailyRates(byDay)));
+        return new ExchangeRates(byCurrency, lineCount, lineCount > 0 ? LocalDate.ofEpochDay(latest) : null);
+    }
+
+    public boolean canConvert(String from, String to) {
+        return from.equals(to) || (hasRates(from) && hasRates(to));
+    }
+
+    /**
+     * Converts minor units of one currency into minor units of another at the
+     * given day's rate. Check canConvert first; amounts with no rate come back
+     * unchanged.
+     */
+    public long convert(long amount, String from, String to, int epochDay) {
+        if (from.equals(to) || !canConvert(from, to)) {
+            return amount;
+        }
+        double factor = rate(to, epochDay) / rate(from, epochDay);
+        int scaleShift = Money.scale(to) - Money.scale(from);
+        if (scaleShift != 0) {
+            factor *= Math.pow(10, scaleShift);
+        }
+        return Math.round(amount * factor);
+    }
+
+    public List<String> getCurrencies() {
+        List<String> currencies = new ArrayList<>(byCurrency.keySet());
+        Collections.sort(currencies);
+        return currencies;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    // Date of the newest rate, or null if there are none
+    public LocalDate getLatestDate() {
+        return latestDate;
+    }
+
+    private boolean hasRates(String currency) {
+        return currency.equals(PIVOT) || byCurrency.containsKey(currency);
+    }
+
+    private double rate(String currency, int epochDay) {
+        return currency.equals(PIVOT) ? 1.0 : byCurrency.get(currency).on(epochDay);
+    }
+
+    // One slot per day from the first rate to the last, gaps filled with the rate before
+    private static final class DailyRates {
+        final int firstDay;
+        final double[] perDay;
+
+        DailyRates(TreeMap<Integer, Double> byDay) {
+            this.firstDay = byDay.firstKey();
+            this.perDay = new double[byDay.lastKey() - firstDay + 1];
+            double current = byDay.firstEntry().getValue();
+            for (int i = 0; i < perDay.length; i++) {
+                Double rate = byDay.get(firstDay + i);
+                if (rate != null) current = rate;
+                perDay[i] = current;
+            }
+        }
+
+        double on(int epochDay) {
+            int i = epochDay - firstDay;
+            return perDay[Math.max(0, Math.min(i, perDay.length - 1))];
+        }
+    }
+}
\ No newline at end of file
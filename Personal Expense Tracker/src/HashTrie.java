@@ -0,0 +1,259 @@
+// ==================== HashTrie.java ====================
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map (a hash array mapped trie). put and remove return a new
+ * trie that shares every untouched node with the old one, so a change copies a
+ * handful of small arrays and older versions stay valid for whoever holds them.
+ * Keys must not be null.
+ */
+final class HashTrie<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final HashTrie<?, ?> EMPTY = new HashTrie<>(new Node(0, new Object[0]), 0);
+
+    private final Node root;
+    private final int size;
+
+    private HashTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> HashTrie<K, V> empty() {
+        return (HashTrie<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(K key) {
+        return find(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(K key) {
+        Entry e = find(key);
+        return e != null ? (V) e.value : null;
+    }
+
+    HashTrie<K, V> put(K key, V value) {
+        boolean[] added = new boolean[1];
+        Node newRoot = (Node) put(root, new Entry(hash(key), key, value), 0, added);
+        return newRoot == root ? this : new HashTrie<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    HashTrie<K, V> remove(K key) {
+        Object newRoot = remove(root, hash(key), key, 0);
+        if (newRoot == root) return this;
+        if (newRoot == null) return empty();
+        if (newRoot instanceof Entry) {
+            // The root is always a bitmap node, even when only one entry is left
+            Entry e = (Entry) newRoot;
+            return new HashTrie<>(new Node(bit(e.hash, 0), new Object[] { e }), size - 1);
+        }
+        return new HashTrie<>((Node) newRoot, size - 1);
+    }
+
+    // In no particular order
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(root, action);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> void forEach(Object slot, BiConsumer<? super K, ? super V> action) {
+        if (slot instanceof Entry) {
+            Entry e = (Entry) slot;
+            action.accept((K) e.key, (V) e.value);
+        } else if (slot instanceof Collision) {
+            for (Entry e : ((Collision) slot).entries) {
+                action.accept((K) e.key, (V) e.value);
+            }
+        } else {
+            for (Object child : ((Node) slot).slots) {
+                forEach(child, action);
+            }
+        }
+    }
+
+    private Entry find(Object key) {
+        int hash = hash(key);
+        Object slot = root;
+        for (int shift = 0; ; shift += BITS) {
+            if (slot instanceof Collision) {
+                for (Entry e : ((Collision) slot).entries) {
+                    if (e.key.equals(key)) return e;
+                }
+                return null;
+            }
+            Node node = (Node) slot;
+            int bit = bit(hash, shift);
+            if ((node.bitmap & bit) == 0) return null;
+
+            slot = node.slots[node.index(bit)];
+            if (slot instanceof Entry) {
+                Entry e = (Entry) slot;
+                return e.hash == hash && e.key.equals(key) ? e : null;
+            }
+        }
+    }
+
+    private static Object put(Object slot, Entry entry, int shift, boolean[] added) {
+        if (slot instanceof Collision) {
+            Entry[] entries = ((Collision) slot).entries;
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key.equals(entry.key)) {
+                    if (entries[i].value == entry.value) return slot;
+                    Entry[] copy = entries.clone();
+                    copy[i] = entry;
+                    return new Collision(copy);
+                }
+            }
+            added[0] = true;
+            Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+            copy[entries.length] = entry;
+            return new Collision(copy);
+        }
+
+        Node node = (Node) slot;
+        int bit = bit(entry.hash, shift);
+        int index = node.index(bit);
+
+        if ((node.bitmap & bit) == 0) {
+            added[0] = true;
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            slots[index] = entry;
+            System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+            return new Node(node.bitmap | bit, slots);
+        }
+
+        Object child = node.slots[index];
+        Object newChild;
+        if (child instanceof Entry) {
+            Entry existing = (Entry) child;
+            if (existing.hash == entry.hash && existing.key.equals(entry.key)) {
+                if (existing.value == entry.value) return node;
+                newChild = entry;
+            } else {
+                added[0] = true;
+                newChild = merge(existing, entry, shift + BITS);
+            }
+        } else {
+            newChild = put(child, entry, shift + BITS, added);
+            if (newChild == child) return node;
+        }
+        return node.with(index, newChild);
+    }
+
+    // Returns the new slot: a node, a lone entry to be pulled up into the parent, or null once empty
+    private static Object remove(Object slot, int hash, Object key, int shift) {
+        if (slot instanceof Collision) {
+            Entry[] entries = ((Collision) slot).entries;
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key.equals(key)) {
+                    if (entries.length == 2) return entries[1 - i];
+                    Entry[] copy = new Entry[entries.length - 1];
+                    System.arraycopy(entries, 0, copy, 0, i);
+                    System.arraycopy(entries, i + 1, copy, i, entries.length - i - 1);
+                    return new Collision(copy);
+                }
+            }
+            return slot;
+        }
+
+        Node node = (Node) slot;
+        int bit = bit(hash, shift);
+        if ((node.bitmap & bit) == 0) return node;
+
+        int index = node.index(bit);
+        Object child = node.slots[index];
+        Object newChild;
+        if (child instanceof Entry) {
+            Entry e = (Entry) child;
+            if (e.hash != hash || !e.key.equals(key)) return node;
+            newChild = null;
+        } else {
+            newChild = remove(child, hash, key, shift + BITS);
+            if (newChild == child) return node;
+        }
+
+        if (newChild != null) {
+            if (newChild instanceof Entry && node.slots.length == 1) return newChild;
+            return node.with(index, newChild);
+        }
+        if (node.slots.length == 1) return null;
+        if (node.slots.length == 2 && node.slots[1 - index] instanceof Entry) return node.slots[1 - index];
+
+        Object[] slots = new Object[node.slots.length - 1];
+        System.arraycopy(node.slots, 0, slots, 0, index);
+        System.arraycopy(node.slots, index + 1, slots, index, node.slots.length - index - 1);
+        return new Node(node.bitmap & ~bit, slots);
+    }
+
+    private static Object merge(Entry a, Entry b, int shift) {
+        if (shift >= Integer.SIZE) {
+            // Every hash bit is used up, so the two keys have the same hash
+            return new Collision(new Entry[] { a, b });
+        }
+        int bitA = bit(a.hash, shift);
+        int bitB = bit(b.hash, shift);
+        if (bitA == bitB) {
+            return new Node(bitA, new Object[] { merge(a, b, shift + BITS) });
+        }
+        return new Node(bitA | bitB, Integer.compareUnsigned(bitA, bitB) < 0 ? new Object[] { a, b } : new Object[] { b, a });
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static final class Entry {
+        final int hash;
+        final Object key;
+        final Object value;
+
+        Entry(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // Slots hold an Entry or a child Node/Collision, in the order of the bits set in bitmap
+    private static final class Node {
+        final int bitmap;
+        final Object[] slots;
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Node with(int index, Object slot) {
+            Object[] copy = slots.clone();
+            copy[index] = slot;
+            return new Node(bitmap, copy);
+        }
+    }
+
+    private static final class Collision {
+        final Entry[] entries;
+
+        Collision(Entry[] entries) {
+            this.entries = entries;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+// ==================== LedgerEvent.java ====================
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A change to the ledger or to how it is shown, published on the {@link EventBus}.
+ * Each event carries the dates it affects, so a view can tell whether any of
+ * what it shows changed.
+ */
+public abstract class LedgerEvent {
+    private final LocalDate from;
+    private final LocalDate to;
+
+    private LedgerEvent(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    // First and last affected date, inclusive
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    // Whether anything dated from..to (inclusive) is affected
+    public boolean affects(LocalDate from, LocalDate to) {
+        return !this.to.isBefore(from) && !this.from.isAfter(to);
+    }
+
+    public boolean affects(YearMonth month) {
+        return affects(month.atDay(1), month.atEndOfMonth());
+    }
+
+    // Anything that changes transactions in the ledger
+    public abstract static class TransactionEvent extends LedgerEvent {
+        private TransactionEvent(LocalDate from, LocalDate to) {
+            super(from, to);
+        }
+    }
+
+    // One or more new transactions; a bulk import arrives as one event
+    public static final class TransactionAdded extends TransactionEvent {
+        private final List<Transaction> transactions;
+
+        public TransactionAdded(List<Transaction> transactions) {
+            super(first(transactions), last(transactions));
+            this.transactions = Collections.unmodifiableList(transactions);
+        }
+
+        public List<Transaction> getTransactions() {
+            return transactions;
+        }
+
+        private static LocalDate first(List<Transaction> transactions) {
+            LocalDate first = LocalDate.MAX;
+            for (Transaction t : transactions) {
+                if (t.getDate().isBefore(first)) first = t.getDate();
+            }
+            return first;
+        }
+
+        private static LocalDate last(List<Transaction> transactions) {
+            LocalDate last = LocalDate.MIN;
+            for (Transaction t : transactions) {
+                if (t.getDate().isAfter(last)) last = t.getDate();
+            }
+            return last;
+        }
+    }
+
+    public static final class TransactionUpdated extends TransactionEvent {
+        private final Transaction previous;
+        private final Transaction updated;
+
+        public TransactionUpdated(Transaction previous, Transaction updated) {
+            super(min(previous.getDate(), updated.getDate()), max(previous.getDate(), updated.getDate()));
+            this.previous = previous;
+            this.updated = updated;
+        }
+
+        public Transaction getPrevious() {
+            return previous;
+        }
+
+        public Transaction getUpdated() {
+            return updated;
+        }
+
+        // Only the old and the new date; a move from one year to the next leaves the months between alone
+        @Override
+        public boolean affects(LocalDate from, LocalDate to) {
+            return within(previous.getDate(), from, to) || within(updated.getDate(), from, to);
+        }
+
+        private static boolean within(LocalDate date, LocalDate from, LocalDate to) {
+            return !date.isBefore(from) && !date.isAfter(to);
+        }
+
+        private static LocalDate min(LocalDate a, LocalDate b) {
+            return a.isBefore(b) ? a : b;
+        }
+
+        private static LocalDate max(LocalDate a, LocalDate b) {
+            return a.isAfter(b) ? a : b;
+        }
+    }
+
+    public static final class TransactionDeleted extends TransactionEvent {
+        private final Transaction deleted;
+
+        public TransactionDeleted(Transaction deleted) {
+            super(deleted.getDate(), deleted.getDate());
+            this.deleted = deleted;
+        }
+
+        public Transaction getDeleted() {
+            return deleted;
+        }
+    }
+
+    // The display currency or the exchange rates changed, so every converted amount may have
+    public static final class CurrencyChanged extends LedgerEvent {
+        private final String currency;
+
+        public CurrencyChanged(String currency) {
+            super(LocalDate.MIN, LocalDate.MAX);
+            this.currency = currency;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+    }
+
+    // The budget covers the current month, so that is what it affects
+    public static final class BudgetChanged extends LedgerEvent {
+        private final long budget;
+
+        public BudgetChanged(long budget) {
+            super(YearMonth.now().atDay(1), YearMonth.now().atEndOfMonth());
+            this.budget = budget;
+        }
+
+        // In minor units of the display currency
+        public long getBudget() {
+            return budget;
+        }
+    }
+}
\ No newline at end of file
@@ -1,7 +1,10 @@
 // ==================== Main.java ====================
 import javafx.application.Application;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -9,7 +12,14 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+
 public class Main extends Application {
+    private static final int CALENDAR_PAGE = 0;
+    private static final int MANAGE_PAGE = 1;
+    private static final int REPORTS_PAGE = 2;
+    private static final int BUDGET_PAGE = 3;
+    private static final int CURRENCY_PAGE = 4;
 
     private boolean isDarkMode = false;
     private BorderPane mainLayout;
@@ -18,11 +28,25 @@ public class Main extends Application {
     private Label usernameLabel;
     private ContextMenu hamburgerMenu;
     private AppController appController; // Keep a reference
+    private Task<AppController> preload;
+    private ApiServer apiServer;
+    private StackPane contentPane;
+    // Built the first time they are shown
+    private Node[] pages;
 
     @Override
     public void start(Stage primaryStage) {
         primaryStage.setTitle("Expense Management System");
 
+        // Back here after logout: the old controller has to let go of the files before they are loaded again
+        stopApiServer();
+        if (appController != null) {
+            appController.shutdown();
+            appController = null;
+        }
+        currentUser = null;
+        scene = null;
+
         UserManager userManager = new UserManager();
         LoginPage loginPage = new LoginPage(userManager);
 
@@ -30,59 +54,125 @@ public class Main extends Application {
         primaryStage.setScene(loginScene);
 
         loginPage.setOnLoginSuccess(() -> {
+            StartupTimer.mark("logged-in");
             currentUser = loginPage.getUsername();
-            showMainApplication(primaryStage);
+            // Not isRunning: that is false while the task is still waiting to start
+            if (!preload.isDone()) {
+                // Login was quicker than loading; carry on once the ledger is in
+                loginPage.setDisable(true);
+                loginScene.setCursor(Cursor.WAIT);
+            } else {
+                showMainApplication(primaryStage);
+            }
+        });
+
+        preload = startPreload(() -> {
+            if (currentUser != null && scene == null) {
+                showMainApplication(primaryStage);
+            }
         });
 
         primaryStage.show();
+        StartupTimer.mark("login-shown");
+    }
+
+    // Loads the ledger while the login page is up; onDone runs on the FX thread
+    private Task<AppController> startPreload(Runnable onDone) {
+        Task<AppController> task = new Task<AppController>() {
+            @Override
+            protected AppController call() {
+                StartupTimer.mark("load-started");
+                AppController controller = new AppController();
+                StartupTimer.mark("loaded");
+                return controller;
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (appController == null) {
+                appController = task.getValue();
+            } else {
+                // The main window already opened its own; two controllers must not share the files
+                task.getValue().shutdown();
+            }
+            onDone.run();
+        });
+        task.setOnFailed(e -> {
+            System.err.println("Error loading data: " + task.getException().getMessage());
+            onDone.run();
+        });
+
+        Thread thread = new Thread(task, "preload");
+        thread.setDaemon(true);
+        thread.start();
+        return task;
+    }
+
+    @Override
+    public void stop() {
+        stopApiServer();
+        if (appController != null) {
+            appController.shutdown();
+        }
     }
 
     private void showMainApplication(Stage primaryStage) {
-        appController = new AppController();
+        if (appController == null) {
+            // The preload failed; try once more here so the error, if any, shows up where it happens
+            appController = new AppController();
+        }
+        startApiServer();
 
         mainLayout = new BorderPane();
 
         HBox topBar = createTopBar();
         mainLayout.setTop(topBar);
 
-        StackPane contentPane = new StackPane();
-
-        CalendarPage calendarPage = new CalendarPage(appController);
-        ManageTransactionPage managePage = new ManageTransactionPage(appController);
-        ReportsPage reportsPage = new ReportsPage(appController);
-        BudgetPage budgetPage = new BudgetPage(appController);
-        CurrencyPage currencyPage = new CurrencyPage(appController);
+        contentPane = new StackPane();
+        pages = new Node[CURRENCY_PAGE + 1];
 
-        contentPane.getChildren().addAll(calendarPage, managePage, reportsPage, budgetPage, currencyPage);
+        // Pages follow changes through appController.getEvents(), redrawing when next shown if hidden
+        showPage(CALENDAR_PAGE);
 
-        showPage(calendarPage, managePage, reportsPage, budgetPage, currencyPage, 0);
-
-        managePage.setOnTransactionChange(() -> {
-            calendarPage.displayCalendar();
-            budgetPage.updateDisplay();
-        });
-
-        budgetPage.setOnBudgetUpdate(() -> {
-            // Budget updated
-        });
-
-        currencyPage.setOnCurrencyChange(() -> {
-            calendarPage.displayCalendar();
-            managePage.refreshTransactionList();
-            budgetPage.updateDisplay();
-        });
-
-        hamburgerMenu = createHamburgerMenu(
-                calendarPage, managePage, reportsPage, budgetPage, currencyPage
-        );
+        hamburgerMenu = createHamburgerMenu();
 
         mainLayout.setCenter(contentPane);
 
         scene = new Scene(mainLayout, 1000, 700);
         applyTheme();
         primaryStage.setScene(scene);
+        StartupTimer.mark("main-shown");
+
+        // Interactive once the first layout pass of the main window is done
+        Runnable[] firstLayout = new Runnable[1];
+        firstLayout[0] = () -> {
+            scene.removePostLayoutPulseListener(firstLayout[0]);
+            StartupTimer.mark("interactive");
+            StartupTimer.report();
+        };
+        scene.addPostLayoutPulseListener(firstLayout[0]);
+    }
 
-        calendarPage.displayCalendar();
+    // The local API is off unless started with -Dexpense.api.port=<port>
+    private void startApiServer() {
+        String port = System.getProperty("expense.api.port");
+        if (port == null) return;
+        // Read once when the HTTP server classes load, so it has to be set before the first server
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        try {
+            apiServer = new ApiServer(appController, Integer.parseInt(port));
+            apiServer.start();
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error starting API server: " + e.getMessage());
+        }
+    }
+
+    private void stopApiServer() {
+        if (apiServer != null) {
+            apiServer.stop();
+            apiServer = null;
+        }
     }
 
     private HBox createTopBar() {
@@ -118,40 +208,32 @@ public class Main extends Application {
         return topBar;
     }
 
-    private ContextMenu createHamburgerMenu(
-            CalendarPage calendarPage,
-            ManageTransactionPage managePage,
-            ReportsPage reportsPage,
-            BudgetPage budgetPage,
-            CurrencyPage currencyPage
-    ) {
+    private ContextMenu createHamburgerMenu() {
         ContextMenu menu = new ContextMenu();
 
         MenuItem calendarItem = new MenuItem("📅 View Calendar");
         calendarItem.setOnAction(e -> {
-            showPage(calendarPage, managePage, reportsPage, budgetPage, currencyPage, 0);
-            calendarPage.displayCalendar();
+            showPage(CALENDAR_PAGE);
         });
 
         MenuItem manageItem = new MenuItem("💼 Manage Transactions");
         manageItem.setOnAction(e -> {
-            showPage(calendarPage, managePage, reportsPage, budgetPage, currencyPage, 1);
+            showPage(MANAGE_PAGE);
         });
 
         MenuItem reportsItem = new MenuItem("📊 Reports");
         reportsItem.setOnAction(e -> {
-            showPage(calendarPage, managePage, reportsPage, budgetPage, currencyPage, 2);
+            showPage(REPORTS_PAGE);
         });
 
         MenuItem budgetItem = new MenuItem("💰 Budget");
         budgetItem.setOnAction(e -> {
-            showPage(calendarPage, managePage, reportsPage, budgetPage, currencyPage, 3);
+            showPage(BUDGET_PAGE);
         });
 
         MenuItem currencyItem = new MenuItem("💱 Currency");
         currencyItem.setOnAction(e -> {
-            showPage(calendarPage, managePage, reportsPage, budgetPage, currencyPage, 4);
-            currencyPage.updateDisplay();
+            ((CurrencyPage) showPage(CURRENCY_PAGE)).updateDisplay();
         });
 
         SeparatorMenuItem separator1 = new SeparatorMenuItem();
@@ -236,19 +318,28 @@ public class Main extends Application {
         return menu;
     }
 
-    private void showPage(
-            CalendarPage calendarPage,
-            ManageTransactionPage managePage,
-            ReportsPage reportsPage,
-            BudgetPage budgetPage,
-            CurrencyPage currencyPage,
-            int index
-    ) {
-        calendarPage.setVisible(index == 0);
-        managePage.setVisible(index == 1);
-        reportsPage.setVisible(index == 2);
-        budgetPage.setVisible(index == 3);
-        currencyPage.setVisible(index == 4);
+    private Node showPage(int index) {
+        if (pages[index] == null) {
+            pages[index] = createPage(index);
+            contentPane.getChildren().add(pages[index]);
+        }
+        for (int i = 0; i < pages.length; i++) {
+            if (pages[i] != null) {
+                pages[i].setVisible(i == index);
+            }
+        }
+        return pages[index];
+    }
+
+    private Node createPage(int index) {
+        switch (index) {
+            case CALENDAR_PAGE: return new CalendarPage(appController);
+            case MANAGE_PAGE: return new ManageTransactionPage(appController);
+            case REPORTS_PAGE: return new ReportsPage(appController);
+            case BUDGET_PAGE: return new BudgetPage(appController);
+            case CURRENCY_PAGE: return new CurrencyPage(appController);
+            default: throw new IllegalArgumentException("No page " + index);
+        }
     }
 
     private void applyTheme() {
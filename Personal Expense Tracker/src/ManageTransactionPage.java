@@ -1,4 +1,8 @@
 // ==================== ManageTransactionPage.java ====================
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -9,6 +13,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 public class ManageTransactionPage extends BorderPane {
     private AppController controller;
@@ -16,14 +21,21 @@ public class ManageTransactionPage extends BorderPane {
     private TextField titleField;
     private ComboBox<String> categoryCombo;
     private TextField amountField;
+    private ComboBox<String> currencyCombo;
     private CheckBox isIncomeCheckBox;
     private TextArea noteArea;
     private ListView<Transaction> transactionListView;
+    private TextField searchField;
+    private LedgerList transactions;
+    private ObservableList<Transaction> searchResults = FXCollections.observableArrayList();
+    private TransactionCellCache cellCache = new TransactionCellCache();
     private Button addButton;
     private Button updateButton;
     private Button deleteButton;
     private Transaction selectedTransaction;
-    private Runnable onTransactionChange;
+    private PageRefresher cellRefresher;
+
+    private static final int SEARCH_LIMIT = 200;
 
     private static final List<String> CATEGORIES = Arrays.asList(
             "Food", "Entertainment", "Groceries", "Transportation",
@@ -43,11 +55,9 @@ public class ManageTransactionPage extends BorderPane {
         splitPane.getItems().addAll(leftPanel, rightPanel);
         setCenter(splitPane);
 
-        refreshTransactionList();
-    }
-
-    public void setOnTransactionChange(Runnable callback) {
-        this.onTransactionChange = callback;
+        new ListUpdater().subscribe(controller.getEvents());
+        cellRefresher = new PageRefresher(this, this::refreshCells);
+        controller.getEvents().subscribe(LedgerEvent.CurrencyChanged.class, event -> cellRefresher.markDirty());
     }
 
     private VBox createLeftPanel() {
@@ -57,7 +67,12 @@ public class ManageTransactionPage extends BorderPane {
         Label titleLabel = new Label("Transaction List");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
 
-        transactionListView = new ListView<>();
+        searchField = new TextField();
+        searchField.setPromptText("Search title, note or category");
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> runSearch());
+
+        transactions = new LedgerList();
+        transactionListView = new ListView<>(transactions);
         transactionListView.setCellFactory(lv -> new ListCell<Transaction>() {
             @Override
             protected void updateItem(Transaction item, boolean empty) {
@@ -65,15 +80,7 @@ public class ManageTransactionPage extends BorderPane {
                 if (empty || item == null) {
                     setText(null);
                 } else {
-                    Settings settings = controller.getSettings();
-                    String symbol = settings.getCurrencySymbol();
-                    setText(String.format("%s %s - %s %s - %s%.2f",
-                            item.isIncome() ? "💰" : "💸",
-                            item.getTitle(),
-                            item.getCategoryIcon(),
-                            item.getCategory(),
-                            symbol,
-                            item.getAmount()));
+                    setText(cellCache.getText(item));
                 }
             }
         });
@@ -89,7 +96,7 @@ public class ManageTransactionPage extends BorderPane {
         Button refreshButton = new Button("Refresh List");
         refreshButton.setOnAction(e -> refreshTransactionList());
 
-        panel.getChildren().addAll(titleLabel, transactionListView, refreshButton);
+        panel.getChildren().addAll(titleLabel, searchField, transactionListView, refreshButton);
         VBox.setVgrow(transactionListView, Priority.ALWAYS);
 
         return panel;
@@ -147,6 +154,13 @@ public class ManageTransactionPage extends BorderPane {
         amountField.setPrefWidth(250);
         formGrid.add(amountField, 1, row++);
 
+        formGrid.add(new Label("Currency:"), 0, row);
+        currencyCombo = new ComboBox<>();
+        currencyCombo.getItems().addAll(CurrencyPage.CURRENCIES);
+        currencyCombo.setValue(controller.getSettings().getCurrency());
+        currencyCombo.setPrefWidth(250);
+        formGrid.add(currencyCombo, 1, row++);
+
         formGrid.add(new Label("Is Income:"), 0, row);
         isIncomeCheckBox = new CheckBox();
         formGrid.add(isIncomeCheckBox, 1, row++);
@@ -190,7 +204,8 @@ public class ManageTransactionPage extends BorderPane {
             LocalDate date = datePicker.getValue();
             String title = titleField.getText().trim();
             String category = categoryCombo.getValue();
-            double amount = Double.parseDouble(amountField.getText().trim());
+            String currency = currencyCombo.getValue();
+            long amount = Money.parse(amountField.getText().trim(), Money.scale(currency));
             boolean isIncome = isIncomeCheckBox.isSelected();
             String note = noteArea.getText().trim();
 
@@ -204,16 +219,11 @@ public class ManageTransactionPage extends BorderPane {
                 return;
             }
 
-            controller.addTransaction(null, date, title, category, amount, isIncome, note);
+            controller.addTransaction(null, date, title, category, amount, currency, isIncome, note);
 
             showAlert(Alert.AlertType.INFORMATION, "Success", "Transaction added successfully!");
 
             clearForm();
-            refreshTransactionList();
-
-            if (onTransactionChange != null) {
-                onTransactionChange.run();
-            }
 
         } catch (NumberFormatException e) {
             showAlert(Alert.AlertType.ERROR, "Error", "Invalid amount! Enter a valid number");
@@ -227,7 +237,8 @@ public class ManageTransactionPage extends BorderPane {
             LocalDate date = datePicker.getValue();
             String title = titleField.getText().trim();
             String category = categoryCombo.getValue();
-            double amount = Double.parseDouble(amountField.getText().trim());
+            String currency = currencyCombo.getValue();
+            long amount = Money.parse(amountField.getText().trim(), Money.scale(currency));
             boolean isIncome = isIncomeCheckBox.isSelected();
             String note = noteArea.getText().trim();
 
@@ -241,16 +252,11 @@ public class ManageTransactionPage extends BorderPane {
                 return;
             }
 
-            controller.updateTransaction(selectedTransaction.getId(), date, title, category, amount, isIncome, note);
+            controller.updateTransaction(selectedTransaction.getId(), date, title, category, amount, currency, isIncome, note);
 
             showAlert(Alert.AlertType.INFORMATION, "Success", "Transaction updated successfully!");
 
             clearForm();
-            refreshTransactionList();
-
-            if (onTransactionChange != null) {
-                onTransactionChange.run();
-            }
 
         } catch (NumberFormatException e) {
             showAlert(Alert.AlertType.ERROR, "Error", "Invalid amount! Enter a valid number");
@@ -270,11 +276,6 @@ public class ManageTransactionPage extends BorderPane {
                 controller.deleteTransaction(selectedTransaction.getId());
                 showAlert(Alert.AlertType.INFORMATION, "Success", "Transaction deleted successfully!");
                 clearForm();
-                refreshTransactionList();
-
-                if (onTransactionChange != null) {
-                    onTransactionChange.run();
-                }
             }
         });
     }
@@ -285,7 +286,8 @@ public class ManageTransactionPage extends BorderPane {
         datePicker.setValue(transaction.getDate());
         titleField.setText(transaction.getTitle());
         categoryCombo.setValue(transaction.getCategory());
-        amountField.setText(String.valueOf(transaction.getAmount()));
+        currencyCombo.setValue(transaction.getCurrency());
+        amountField.setText(Money.format(transaction.getAmount(), Money.scale(transaction.getCurrency())));
         isIncomeCheckBox.setSelected(transaction.isIncome());
         noteArea.setText(transaction.getNote());
 
@@ -300,6 +302,7 @@ public class ManageTransactionPage extends BorderPane {
         titleField.clear();
         categoryCombo.setValue("Food");
         amountField.clear();
+        currencyCombo.setValue(controller.getSettings().getCurrency());
         isIncomeCheckBox.setSelected(false);
         noteArea.clear();
 
@@ -310,9 +313,138 @@ public class ManageTransactionPage extends BorderPane {
         transactionListView.getSelectionModel().clearSelection();
     }
 
+    // Full reload; normal edits arrive one at a time through ListUpdater instead
     public void refreshTransactionList() {
-        transactionListView.getItems().clear();
-        transactionListView.getItems().addAll(controller.getAllTransactions());
+        transactions = new LedgerList();
+        if (transactionListView.getItems() != searchResults) {
+            transactionListView.setItems(transactions);
+        }
+    }
+
+    // Searches as the user types; an empty box shows the full list again
+    private void runSearch() {
+        String query = searchField.getText();
+        if (query == null || query.isBlank()) {
+            transactionListView.setItems(transactions);
+        } else {
+            searchResults.setAll(controller.searchTransactions(query, SEARCH_LIMIT));
+            transactionListView.setItems(searchResults);
+        }
+    }
+
+    // Re-renders visible cells without touching the list, e.g. after a currency change
+    public void refreshCells() {
+        cellCache.clear();
+        transactionListView.refresh();
+    }
+
+    /**
+     * The ledger as the list shows it: a view of the store that reads only the
+     * rows on screen. Each change swaps in a newer view and tells the ListView
+     * just which rows moved, found by id, so scrolling and selection survive.
+     */
+    private class LedgerList extends ObservableListBase<Transaction> {
+        private TransactionManager.LedgerView view = controller.viewAllTransactions();
+
+        @Override
+        public Transaction get(int index) {
+            return view.get(index);
+        }
+
+        @Override
+        public int size() {
+            return view.size();
+        }
+
+        // New transactions go to the end of the ledger
+        boolean added(int count) {
+            TransactionManager.LedgerView next = controller.viewAllTransactions();
+            if (next.size() != view.size() + count) return false;
+
+            int from = view.size();
+            view = next;
+            beginChange();
+            nextAdd(from, next.size());
+            endChange();
+            return true;
+        }
+
+        boolean updated(Transaction previous) {
+            TransactionManager.LedgerView next = controller.viewAllTransactions();
+            int from = view.positionOf(previous.getId());
+            int to = next.positionOf(previous.getId());
+            if (from < 0 || to < 0 || next.size() != view.size()) return false;
+
+            view = next;
+            beginChange();
+            if (from == to) {
+                nextSet(to, previous);
+            } else {
+                // An edited snapshot row moves to the end, with the other changes
+                nextRemove(from, previous);
+                nextAdd(to, to + 1);
+            }
+            endChange();
+            return true;
+        }
+
+        boolean deleted(Transaction deleted) {
+            TransactionManager.LedgerView next = controller.viewAllTransactions();
+            int from = view.positionOf(deleted.getId());
+            if (from < 0 || next.size() != view.size() - 1) return false;
+
+            view = next;
+            beginChange();
+            nextRemove(from, deleted);
+            endChange();
+            return true;
+        }
+    }
+
+    // Applies each ledger change to the list as a single insert, replace or remove.
+    // The list holds every date, so every change applies, hidden or not.
+    private class ListUpdater {
+        void subscribe(EventBus events) {
+            events.subscribe(LedgerEvent.TransactionAdded.class, this::transactionAdded);
+            events.subscribe(LedgerEvent.TransactionUpdated.class, this::transactionUpdated);
+            events.subscribe(LedgerEvent.TransactionDeleted.class, this::transactionDeleted);
+        }
+
+        private void transactionAdded(LedgerEvent.TransactionAdded event) {
+            runOnFxThread(() -> transactions.added(event.getTransactions().size()));
+        }
+
+        private void transactionUpdated(LedgerEvent.TransactionUpdated event) {
+            runOnFxThread(() -> {
+                cellCache.invalidate(event.getPrevious().getId());
+                return transactions.updated(event.getPrevious());
+            });
+        }
+
+        private void transactionDeleted(LedgerEvent.TransactionDeleted event) {
+            runOnFxThread(() -> {
+                cellCache.invalidate(event.getDeleted().getId());
+                return transactions.deleted(event.getDeleted());
+            });
+        }
+
+        // A change the list cannot place (e.g. a later one already landed in the store) reloads it instead.
+        // Search results are re-run rather than patched, since an edit can change what matches.
+        private void runOnFxThread(BooleanSupplier action) {
+            Runnable update = () -> {
+                if (!action.getAsBoolean()) {
+                    refreshTransactionList();
+                }
+                if (transactionListView.getItems() == searchResults) {
+                    runSearch();
+                }
+            };
+            if (Platform.isFxApplicationThread()) {
+                update.run();
+            } else {
+                Platform.runLater(update);
+            }
+        }
     }
 
     private void showAlert(Alert.AlertType type, String title, String message) {
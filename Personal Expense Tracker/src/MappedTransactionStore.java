@@ -0,0 +1,218 @@
+// ==================== MappedTransactionStore.java ====================
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Read-only view over a {@link TransactionFile} snapshot. The file is memory-mapped
+ * and only the header is parsed on open; rows are decoded when asked for, so
+ * opening costs the same no matter how many rows the file holds.
+ *
+ * Rows are stored in date order, which lets range queries binary search the
+ * epoch day column instead of decoding anything outside the range. Ids are
+ * found through the file's id index.
+ */
+public class MappedTransactionStore {
+    private final MappedByteBuffer buf;
+    private final int rows;
+    private final String[] categoryNames;
+    private final String[] currencyNames;
+    private final int legacyScale;
+    private final boolean doubleAmounts;
+    private final int daysAt;
+    private final int amountsAt;
+    private final int flagsAt;
+    private final int categoriesAt;
+    private final int currenciesAt;
+    private final int uuidsAt;
+    private final int idHeapAt;
+    private final int titleHeapAt;
+    private final int noteHeapAt;
+    // Where the id index starts, or -1 for older files, whose index is built on first use
+    private final int idIndexAt;
+    private final int idIndexCapacity;
+    private volatile int[] builtIdIndex;
+
+    private MappedTransactionStore(MappedByteBuffer buf, String legacyCurrency) throws IOException {
+        this.buf = buf;
+
+        if (buf.getInt() != TransactionFile.MAGIC) {
+            throw new IOException("Not a transaction file");
+        }
+        int version = buf.getInt();
+        if (version < TransactionFile.VERSION_DOUBLE_AMOUNTS || version > TransactionFile.VERSION) {
+            throw new IOException("Unsupported transaction file version " + version);
+        }
+        boolean hasCurrencies = version > TransactionFile.VERSION_NO_CURRENCIES;
+        this.doubleAmounts = version == TransactionFile.VERSION_DOUBLE_AMOUNTS;
+        this.legacyScale = Money.scale(legacyCurrency);
+        this.rows = buf.getInt();
+
+        this.categoryNames = readDictionary();
+        this.currencyNames = hasCurrencies ? readDictionary() : new String[] { legacyCurrency };
+
+        this.daysAt = buf.position();
+        this.amountsAt = daysAt + rows * 4;
+        this.flagsAt = amountsAt + rows * 8;
+        this.categoriesAt = flagsAt + rows;
+        // Older files have no currency column; every row is currencyNames[0]
+        this.currenciesAt = hasCurrencies ? categoriesAt + rows * 2 : -1;
+        this.uuidsAt = categoriesAt + rows * (hasCurrencies ? 4 : 2);
+        this.idHeapAt = uuidsAt + rows * 16;
+        this.titleHeapAt = heapEnd(idHeapAt);
+        this.noteHeapAt = heapEnd(titleHeapAt);
+        if (version > TransactionFile.VERSION_NO_ID_INDEX) {
+            this.idIndexAt = heapEnd(noteHeapAt) + 4;
+            this.idIndexCapacity = buf.getInt(idIndexAt - 4);
+        } else {
+            this.idIndexAt = -1;
+            this.idIndexCapacity = TransactionFile.idIndexCapacity(rows);
+        }
+    }
+
+    // legacyCurrency is the currency of every row in files older than version 3
+    public static MappedTransactionStore open(Path file, String legacyCurrency) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new MappedTransactionStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), legacyCurrency);
+        }
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public int epochDay(int row) {
+        return buf.getInt(daysAt + row * 4);
+    }
+
+    // First row whose date is on or after the given date, or size() if none
+    public int firstRowOnOrAfter(LocalDate date) {
+        long target = date.toEpochDay();
+        int low = 0, high = rows;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDay(mid) < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // In minor units
+    public long amount(int row) {
+        if (doubleAmounts) {
+            return Money.fromDouble(buf.getDouble(amountsAt + row * 8), legacyScale);
+        }
+        return buf.getLong(amountsAt + row * 8);
+    }
+
+    public boolean isIncome(int row) {
+        return (flags(row) & TransactionFile.FLAG_INCOME) != 0;
+    }
+
+    // The dictionary entry itself, so no string is built per row
+    public String category(int row) {
+        return categoryNames[buf.getShort(categoriesAt + row * 2)];
+    }
+
+    // Also a dictionary entry
+    public String currency(int row) {
+        return currenciesAt < 0 ? currencyNames[0] : currencyNames[buf.getShort(currenciesAt + row * 2)];
+    }
+
+    public String id(int row) {
+        if ((flags(row) & TransactionFile.FLAG_UUID_ID) != 0) {
+            return new UUID(buf.getLong(uuidsAt + row * 16), buf.getLong(uuidsAt + row * 16 + 8)).toString();
+        }
+        return heapString(idHeapAt, row);
+    }
+
+    // Row holding the given id, or -1. Probes the id index; only rows sharing a slot have their id compared.
+    public int indexOf(String id) {
+        UUID uuid = TransactionFile.asUuid(id);
+        return indexOf(id, uuid, TransactionFile.idHash(id, uuid));
+    }
+
+    // With the id already parsed and hashed, for callers probing several files for one id
+    int indexOf(String id, UUID uuid, int hash) {
+        int[] built = idIndexAt < 0 ? builtIdIndex() : null;
+        int mask = idIndexCapacity - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = built != null ? built[slot] : buf.getInt(idIndexAt + slot * 4);
+            if (entry == 0) {
+                return -1;
+            }
+            int row = entry - 1;
+            boolean packed = (flags(row) & TransactionFile.FLAG_UUID_ID) != 0;
+            if (packed ? uuid != null && buf.getLong(uuidsAt + row * 16) == uuid.getMostSignificantBits()
+                    && buf.getLong(uuidsAt + row * 16 + 8) == uuid.getLeastSignificantBits()
+                    : heapString(idHeapAt, row).equals(id)) {
+                return row;
+            }
+        }
+    }
+
+    // The id index an older file lacks, laid out as TransactionFile writes it. Two threads may both build it; either copy will do.
+    private int[] builtIdIndex() {
+        int[] index = builtIdIndex;
+        if (index == null) {
+            index = new int[idIndexCapacity];
+            for (int row = 0; row < rows; row++) {
+                int hash = (flags(row) & TransactionFile.FLAG_UUID_ID) != 0
+                        ? TransactionFile.idHash(buf.getLong(uuidsAt + row * 16), buf.getLong(uuidsAt + row * 16 + 8))
+                        : TransactionFile.idHash(heapString(idHeapAt, row));
+                TransactionFile.addToIdIndex(index, hash, row);
+            }
+            builtIdIndex = index;
+        }
+        return index;
+    }
+
+    public Transaction get(int row) {
+        int flag = flags(row);
+        return new Transaction(
+                id(row),
+                LocalDate.ofEpochDay(epochDay(row)),
+                heapString(titleHeapAt, row),
+                category(row),
+                amount(row),
+                currency(row),
+                (flag & TransactionFile.FLAG_INCOME) != 0,
+                (flag & TransactionFile.FLAG_HAS_NOTE) != 0 ? heapString(noteHeapAt, row) : null);
+    }
+
+    private String[] readDictionary() {
+        String[] names = new String[buf.getInt()];
+        for (int i = 0; i < names.length; i++) {
+            byte[] name = new byte[buf.getShort() & 0xFFFF];
+            buf.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    private int flags(int row) {
+        return buf.get(flagsAt + row);
+    }
+
+    private int heapEnd(int heapAt) {
+        int dataBytes = rows == 0 ? 0 : buf.getInt(heapAt + (rows - 1) * 4);
+        return heapAt + rows * 4 + dataBytes;
+    }
+
+    private String heapString(int heapAt, int row) {
+        int start = row == 0 ? 0 : buf.getInt(heapAt + (row - 1) * 4);
+        int end = buf.getInt(heapAt + row * 4);
+        byte[] bytes = new byte[end - start];
+        buf.get(heapAt + rows * 4 + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
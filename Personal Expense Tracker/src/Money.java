@@ -0,0 +1,132 @@
+// ==================== Money.java ====================
+import java.util.Currency;
+
+/**
+ * Amounts are held as a long count of the currency's minor unit (cents for USD,
+ * paise for INR), so sums are exact. The scale is how many minor-unit digits the
+ * currency has, from its ISO 4217 data. Parsing and formatting work on the
+ * digits directly, without BigDecimal or java.util.Formatter.
+ */
+public final class Money {
+    public static final String DEFAULT_CURRENCY = "USD";
+    // Every currency the app offers has two decimals, and amounts saved before they were exact assume it
+    public static final int DEFAULT_SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private Money() {
+    }
+
+    public static int scale(String currencyCode) {
+        try {
+            int digits = Currency.getInstance(currencyCode).getDefaultFractionDigits();
+            // -1 for codes without a minor unit, e.g. gold
+            return digits >= 0 && digits < POWERS_OF_TEN.length ? digits : DEFAULT_SCALE;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return DEFAULT_SCALE;
+        }
+    }
+
+    public static boolean isKnownCurrency(String currencyCode) {
+        try {
+            Currency.getInstance(currencyCode);
+            return true;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return false;
+        }
+    }
+
+    public static String symbol(String currencyCode) {
+        switch (currencyCode) {
+            case "PKR": return "Rs ";
+            case "SAR": return "﷼ ";
+            case "EUR": return "€";
+            case "INR": return "₹";
+            case "USD": return "$";
+            case "GBP": return "£";
+            default: return currencyCode + " ";
+        }
+    }
+
+    /**
+     * Parses "12", "-3.5" or "0.125" into minor units. Digits beyond the scale
+     * are rounded half up. Throws NumberFormatException like Double.parseDouble.
+     */
+    public static long parse(String text, int scale) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+
+        long units = 0;
+        int fractionDigits = -1;
+        boolean anyDigit = false;
+        boolean roundUp = false;
+        try {
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                    continue;
+                }
+                if (c < '0' || c > '9') {
+                    throw new NumberFormatException("Not an amount: \"" + text + "\"");
+                }
+                anyDigit = true;
+                if (fractionDigits == scale) {
+                    // Only the first digit past the scale decides the rounding
+                    roundUp = c >= '5';
+                    fractionDigits++;
+                } else if (fractionDigits < scale) {
+                    units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                    if (fractionDigits >= 0) fractionDigits++;
+                }
+            }
+            if (!anyDigit) {
+                throw new NumberFormatException("Not an amount: \"" + text + "\"");
+            }
+            int missing = scale - Math.max(0, Math.min(fractionDigits, scale));
+            units = Math.multiplyExact(units, POWERS_OF_TEN[missing]) + (roundUp ? 1 : 0);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount too large: \"" + text + "\"");
+        }
+        return negative ? -units : units;
+    }
+
+    // For amounts stored as doubles by older versions; those only ever held what was typed in
+    public static long fromDouble(double amount, int scale) {
+        return Math.round(amount * POWERS_OF_TEN[scale]);
+    }
+
+    public static double toDouble(long minorUnits, int scale) {
+        return minorUnits / (double) POWERS_OF_TEN[scale];
+    }
+
+    public static String format(long minorUnits, int scale) {
+        StringBuilder sb = new StringBuilder(16);
+        append(sb, minorUnits, scale);
+        return sb.toString();
+    }
+
+    public static StringBuilder append(StringBuilder sb, long minorUnits, int scale) {
+        if (minorUnits < 0) {
+            sb.append('-');
+        }
+        long abs = Math.abs(minorUnits);
+        if (scale == 0) {
+            return sb.append(abs);
+        }
+        long unit = POWERS_OF_TEN[scale];
+        long fraction = abs % unit;
+        sb.append(abs / unit).append('.');
+        for (long digit = unit / 10; digit > 1 && fraction < digit; digit /= 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+// ==================== PageRefresher.java ====================
+import javafx.application.Platform;
+import javafx.scene.Node;
+
+/**
+ * Redraws a page when something it shows has changed: right away while the page
+ * is visible, otherwise once, the next time it is shown. Pages hidden behind
+ * another one in the main window pile up changes for free this way. Changes may
+ * be reported from any thread; the redraw always runs on the FX thread.
+ */
+public class PageRefresher {
+    private final Node page;
+    private final Runnable refresh;
+    private boolean dirty;
+
+    public PageRefresher(Node page, Runnable refresh) {
+        this.page = page;
+        this.refresh = refresh;
+        page.visibleProperty().addListener((observable, wasVisible, visible) -> {
+            if (visible && dirty) {
+                dirty = false;
+                refresh.run();
+            }
+        });
+    }
+
+    public void markDirty() {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(this::markDirty);
+            return;
+        }
+        if (page.isVisible()) {
+            dirty = false;
+            refresh.run();
+        } else {
+            dirty = true;
+        }
+    }
+}
\ No newline at end of file
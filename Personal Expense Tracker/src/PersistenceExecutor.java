@@ -0,0 +1,89 @@
+// ==================== PersistenceExecutor.java ====================
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs disk writes on a background thread so the UI never waits on them.
+ * Tasks are keyed: submitting a key that is already pending replaces the older
+ * task, and a burst of submissions is coalesced into one run that happens once
+ * things go quiet for DEBOUNCE_MS, or at the latest MAX_DELAY_MS after the first one.
+ */
+public class PersistenceExecutor {
+    private static final long DEBOUNCE_MS = 250;
+    private static final long MAX_DELAY_MS = 2000;
+
+    private final ScheduledExecutorService executor;
+    private final Map<String, Runnable> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduled;
+    private long firstPendingAt;
+
+    public PersistenceExecutor() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "persistence");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public synchronized void submit(String key, Runnable task) {
+        long now = System.currentTimeMillis();
+        if (pending.isEmpty()) {
+            firstPendingAt = now;
+        }
+        pending.put(key, task);
+
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        long delay = Math.min(DEBOUNCE_MS, Math.max(0, firstPendingAt + MAX_DELAY_MS - now));
+        scheduled = executor.schedule(this::runPending, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs everything pending right away and waits for it; used on exit
+    public void flush() {
+        try {
+            executor.submit(this::runPending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error flushing pending writes: " + e.getCause().getMessage());
+        }
+    }
+
+    // Drops writes that have not started yet, e.g. when the data is being deleted
+    public synchronized void cancelPending() {
+        pending.clear();
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+    }
+
+    public void shutdown() {
+        flush();
+        executor.shutdown();
+    }
+
+    private void runPending() {
+        List<Runnable> tasks;
+        synchronized (this) {
+            tasks = new ArrayList<>(pending.values());
+            pending.clear();
+            scheduled = null;
+        }
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error in background write: " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -2,61 +2,358 @@
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.time.format.DateTimeFormatter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ReportGenerator {
+    // Id is last so files exported before it was added keep their column positions
+    static final String CSV_HEADER = "Date,Title,Type,Category,Amount,Note,Currency,Id";
+    private static final int CSV_CHUNK_ROWS = 8192;
+    // What %n stood for in the analysis tables
+    private static final String NEWLINE = System.lineSeparator();
+
+    // Totals are converted into this currency; rows keep their own
+    private final String currency;
+    private final ExchangeRates rates;
+
+    public ReportGenerator() {
+        this(Money.DEFAULT_CURRENCY, ExchangeRates.none());
+    }
+
+    public ReportGenerator(String currency, ExchangeRates rates) {
+        this.currency = currency;
+        this.rates = rates;
+    }
 
     public void exportToCSV(List<Transaction> list, String filePath) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("Date,Title,Type,Category,Amount,Note");
-
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            for (Transaction t : list) {
-                writer.printf("%s,%s,%s,%s,%.2f,%s%n",
-                        t.getDate().format(formatter),
-                        t.getTitle(),
-                        t.getType(),
-                        t.getCategory(),
-                        t.getAmount(),
-                        t.getNote() != null ? t.getNote() : "");
-            }
+        exportToCSV(list.iterator(), filePath);
+    }
 
+    /**
+     * Streams rows to a CSV file. Rows are pulled from the iterator in chunks,
+     * each chunk is encoded on the common fork/join pool, and the encoded chunks
+     * are written in their original order. Only a few chunks are in flight at
+     * once, so memory stays flat however many rows there are.
+     */
+    public void exportToCSV(Iterator<Transaction> rows, String filePath) {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeCSV(rows, channel);
             System.out.println("CSV exported successfully to: " + filePath);
         } catch (IOException e) {
             System.err.println("Error exporting to CSV: " + e.getMessage());
         }
     }
 
-    public void exportToTXT(List<Transaction> list, String filePath) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("===============================================");
-            writer.println("           TRANSACTION REPORT");
-            writer.println("===============================================");
-            writer.println();
-
-            double totalIncome = 0;
-            double totalExpense = 0;
-
-            for (Transaction t : list) {
-                writer.println(t.toString());
-                if (t.isIncome()) {
-                    totalIncome += t.getAmount();
-                } else {
-                    totalExpense += t.getAmount();
-                }
+    // Same as exportToCSV, to any channel (the headless CLI passes stdout)
+    public void writeCSV(Iterator<Transaction> rows, WritableByteChannel channel) throws IOException {
+        int maxInFlight = Runtime.getRuntime().availableProcessors() * 2;
+        Deque<CompletableFuture<ByteBuffer>> inFlight = new ArrayDeque<>();
+
+        writeFully(channel, ByteBuffer.wrap((CSV_HEADER + "\r\n").getBytes(StandardCharsets.UTF_8)));
+
+        while (rows.hasNext()) {
+            List<Transaction> chunk = new ArrayList<>(CSV_CHUNK_ROWS);
+            while (rows.hasNext() && chunk.size() < CSV_CHUNK_ROWS) {
+                chunk.add(rows.next());
+            }
+            inFlight.add(CompletableFuture.supplyAsync(() -> encodeCsvChunk(chunk)));
+
+            if (inFlight.size() >= maxInFlight) {
+                writeFully(channel, inFlight.poll().join());
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            writeFully(channel, inFlight.poll().join());
+        }
+    }
+
+    static ByteBuffer encodeCsvChunk(List<Transaction> chunk) {
+        StringBuilder sb = new StringBuilder(chunk.size() * 64);
+        for (Transaction t : chunk) {
+            sb.append(t.getDate()).append(',');
+            appendCsvField(sb, t.getTitle()).append(',');
+            sb.append(t.getType()).append(',');
+            appendCsvField(sb, t.getCategory()).append(',');
+            Money.append(sb, t.getAmount(), Money.scale(t.getCurrency())).append(',');
+            appendCsvField(sb, t.getNote()).append(',');
+            sb.append(t.getCurrency()).append(',');
+            appendCsvField(sb, t.getId()).append("\r\n");
+        }
+        return ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // RFC 4180: quote fields holding a comma, quote or line break, and double embedded quotes
+    static StringBuilder appendCsvField(StringBuilder sb, String value) {
+        if (value == null) return sb;
+
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            return sb.append(value);
+        }
+
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
             }
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    // The parts of the month view shown on the calendar page, which formats its rows as they scroll into view
+    public static final String MONTHLY_HEADING = "Date         Title                Category        Amount      \n"
+            + "─".repeat(80);
+
+    public static String formatMonthlyTitle(YearMonth yearMonth) {
+        String month = yearMonth.getMonth().toString();
+        return "╔════════════════════════════════════════════════╗\n" +
+                "║  " + month + " " + yearMonth.getYear() + " - Monthly Summary" +
+                " ".repeat(Math.max(0, 17 - month.length())) + "║\n" +
+                "╚════════════════════════════════════════════════╝";
+    }
+
+    public static String formatMonthlyRow(Transaction t) {
+        StringBuilder sb = new StringBuilder(96);
+        padRight(sb, t.getFormattedDate(), 12).append(' ').append(t.isIncome() ? "💰" : "💸").append(' ');
+        padRight(sb, t.getTitle(), 18).append(' ').append(t.getCategoryIcon()).append(' ');
+        padRight(sb, t.getCategory(), 12).append(' ');
+        return padRight(sb, t.getFormattedAmount(), 12).toString();
+    }
+
+    // Totals are in the summary's currency
+    public static String formatMonthlyTotals(AggregateCache.Summary summary) {
+        StringBuilder sb = new StringBuilder("═".repeat(80)).append("\n");
+        appendTotals(sb, summary, "💰 Total Income:   ", "💸 Total Expense:  ", "📊 Net Balance:    ");
+        return sb.append("═".repeat(80)).toString();
+    }
+
+    // The period report; the reports page shows the same title and totals around its rows
+    public static void writeReport(String title, Iterable<Transaction> transactions,
+                                   AggregateCache.Summary summary, PrintWriter out) {
+        out.print(formatReportTitle(title) + "\n\n");
+
+        if (summary.getCount() == 0) {
+            out.print("No transactions found.\n");
+        } else {
+            for (Transaction t : transactions) {
+                out.print(t.toString() + "\n");
+            }
+            out.print("\n" + formatReportTotals(summary) + "\n");
+        }
+    }
+
+    public static String formatReportTitle(String title) {
+        return "========================================\n" + title + "\n========================================";
+    }
+
+    public static String formatReportTotals(AggregateCache.Summary summary) {
+        StringBuilder sb = new StringBuilder(160).append("--- Summary ---\n");
+        appendTotals(sb, summary, "Total Income: ", "Total Expense: ", "Net Balance: ");
+        sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    // Totals per calendar year, each with its change in spending against the year before
+    public static void writeYearOverYear(AnalyticsEngine.Analysis analysis, PrintWriter out) {
+        writeHeading(out, "Year over Year (" + analysis.getFrom() + " to " + analysis.getTo() + ")");
+        String symbol = Money.symbol(analysis.getCurrency());
+        int scale = Money.scale(analysis.getCurrency());
+
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("Year             Income          Expense              Net    Change").append(NEWLINE);
+        AnalyticsEngine.Rollup previous = null;
+        for (Map.Entry<Integer, AnalyticsEngine.Rollup> year : analysis.getYears().entrySet()) {
+            AnalyticsEngine.Rollup rollup = year.getValue();
+            padRight(sb, year.getKey().toString(), 6).append(' ');
+            padLeft(sb, amount(symbol, rollup.getIncome(), scale), 16).append(' ');
+            padLeft(sb, amount(symbol, rollup.getExpense(), scale), 16).append(' ');
+            padLeft(sb, amount(symbol, rollup.getNet(), scale), 16).append(' ');
+            padLeft(sb, previous == null ? "" : change(previous.getExpense(), rollup.getExpense()), 9).append(NEWLINE);
+            previous = rollup;
+        }
+        out.print(sb);
+        writeFooter(out, analysis.getTotal());
+    }
+
+    // Spending per category over the whole range, largest first
+    public static void writeCategoryBreakdown(AnalyticsEngine.Analysis analysis, PrintWriter out) {
+        writeHeading(out, "Spending by Category (" + analysis.getFrom() + " to " + analysis.getTo() + ")");
+        String symbol = Money.symbol(analysis.getCurrency());
+        int scale = Money.scale(analysis.getCurrency());
+        AnalyticsEngine.Rollup total = analysis.getTotal();
+
+        List<Map.Entry<String, Long>> categories = new ArrayList<>(total.getCategoryExpenses().entrySet());
+        categories.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("Category                      Expense   Share").append(NEWLINE);
+        for (Map.Entry<String, Long> category : categories) {
+            padRight(sb, category.getKey(), 20).append(' ');
+            padLeft(sb, amount(symbol, category.getValue(), scale), 16).append(' ');
+            long share = total.getExpense() == 0 ? 0 : tenthsOfPercent(category.getValue(), total.getExpense());
+            padLeft(sb, Money.format(share, 1), 6).append('%').append(NEWLINE);
+        }
+        out.print(sb);
+        writeFooter(out, total);
+    }
+
+    // Each month's spending next to the twelve months ending with it
+    public static void writeRolling(AnalyticsEngine.Analysis analysis, PrintWriter out) {
+        writeHeading(out, "Rolling 12 Months (" + analysis.getFrom() + " to " + analysis.getTo() + ")");
+        String symbol = Money.symbol(analysis.getCurrency());
+        int scale = Money.scale(analysis.getCurrency());
+
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("Month             Expense      12m Expense          12m Net").append(NEWLINE);
+        for (YearMonth month = analysis.getFrom(); !month.isAfter(analysis.getTo()); month = month.plusMonths(1)) {
+            AnalyticsEngine.Rollup window = analysis.getRolling(month);
+            padRight(sb, month.toString(), 8).append(' ');
+            padLeft(sb, amount(symbol, analysis.getMonth(month).getExpense(), scale), 16).append(' ');
+            padLeft(sb, amount(symbol, window.getExpense(), scale), 16).append(' ');
+            padLeft(sb, amount(symbol, window.getNet(), scale), 16).append(NEWLINE);
+        }
+        out.print(sb);
+        writeFooter(out, analysis.getTotal());
+    }
+
+    private static void writeHeading(PrintWriter out, String title) {
+        out.print("========================================\n");
+        out.print(title + "\n");
+        out.print("========================================\n\n");
+    }
+
+    private static void writeFooter(PrintWriter out, AnalyticsEngine.Rollup total) {
+        if (total.getUnconverted() > 0) {
+            out.print("\n(" + total.getUnconverted() + " transaction(s) left out: no exchange rate for their currency)\n");
+        }
+    }
+
+    private static String amount(String symbol, long minorUnits, int scale) {
+        return Money.append(new StringBuilder(symbol), minorUnits, scale).toString();
+    }
+
+    private static String change(long before, long after) {
+        if (before == 0) return "";
+        // Signed by the change itself, so a small drop still reads -0.0%
+        long tenths = Math.abs(tenthsOfPercent(after - before, before));
+        return Money.append(new StringBuilder(after >= before ? "+" : "-"), tenths, 1).append('%').toString();
+    }
+
+    // part as a percentage of whole, in tenths, rounded half away from zero
+    private static long tenthsOfPercent(long part, long whole) {
+        long scaled = Math.multiplyExact(part, 1000L);
+        long tenths = scaled / whole;
+        long remainder = Math.abs(scaled % whole);
+        if (remainder >= Math.abs(whole) - remainder) {
+            tenths += (scaled < 0) == (whole < 0) ? 1 : -1;
+        }
+        return tenths;
+    }
+
+    // value followed by spaces up to width, like %-Ns; a longer value is not cut
+    private static StringBuilder padRight(StringBuilder sb, String value, int width) {
+        sb.append(value);
+        for (int i = value.length(); i < width; i++) {
+            sb.append(' ');
+        }
+        return sb;
+    }
+
+    // Spaces up to width followed by value, like %Ns
+    private static StringBuilder padLeft(StringBuilder sb, String value, int width) {
+        for (int i = value.length(); i < width; i++) {
+            sb.append(' ');
+        }
+        return sb.append(value);
+    }
+
+    private static void appendTotals(StringBuilder sb, AggregateCache.Summary summary,
+                                     String incomeLabel, String expenseLabel, String netLabel) {
+        String symbol = Money.symbol(summary.getCurrency());
+        int scale = Money.scale(summary.getCurrency());
+        Money.append(sb.append(incomeLabel).append(symbol), summary.getIncome(), scale).append('\n');
+        Money.append(sb.append(expenseLabel).append(symbol), summary.getExpense(), scale).append('\n');
+        Money.append(sb.append(netLabel).append(symbol), summary.getNet(), scale).append('\n');
+        if (summary.getUnconverted() > 0) {
+            sb.append("(").append(summary.getUnconverted())
+                    .append(" transaction(s) left out: no exchange rate for their currency)\n");
+        }
+    }
 
-            writer.println();
-            writer.println("===============================================");
-            writer.printf("Total Income:  $%.2f%n", totalIncome);
-            writer.printf("Total Expense: $%.2f%n", totalExpense);
-            writer.printf("Net Balance:   $%.2f%n", totalIncome - totalExpense);
-            writer.println("===============================================");
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
 
+    public void exportToTXT(List<Transaction> list, String filePath) {
+        exportToTXT(list.iterator(), filePath);
+    }
+
+    // Streams rows to a TXT file; the ledger is never held in memory as a list
+    public void exportToTXT(Iterator<Transaction> rows, String filePath) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
+            writeTXT(rows, writer);
             System.out.println("TXT report exported successfully to: " + filePath);
         } catch (IOException e) {
             System.err.println("Error exporting to TXT: " + e.getMessage());
         }
     }
+
+    // Totals are kept as rows go by, so the rows never have to be in memory at once
+    public void writeTXT(Iterator<Transaction> rows, PrintWriter writer) {
+        writer.println("===============================================");
+        writer.println("           TRANSACTION REPORT");
+        writer.println("===============================================");
+        writer.println();
+
+        long totalIncome = 0;
+        long totalExpense = 0;
+        int unconverted = 0;
+
+        while (rows.hasNext()) {
+            Transaction t = rows.next();
+            writer.println(t.toString());
+            if (!rates.canConvert(t.getCurrency(), currency)) {
+                unconverted++;
+                continue;
+            }
+            long amount = rates.convert(t.getAmount(), t.getCurrency(), currency, (int) t.getDate().toEpochDay());
+            if (t.isIncome()) {
+                totalIncome += amount;
+            } else {
+                totalExpense += amount;
+            }
+        }
+
+        String symbol = Money.symbol(currency);
+        int scale = Money.scale(currency);
+        writer.println();
+        writer.println("===============================================");
+        writer.println(Money.append(new StringBuilder("Total Income:  ").append(symbol), totalIncome, scale));
+        writer.println(Money.append(new StringBuilder("Total Expense: ").append(symbol), totalExpense, scale));
+        writer.println(Money.append(new StringBuilder("Net Balance:   ").append(symbol), totalIncome - totalExpense, scale));
+        if (unconverted > 0) {
+            writer.println(unconverted + " transaction(s) left out of the totals: no exchange rate for their currency");
+        }
+        writer.println("===============================================");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+// ==================== ReportView.java ====================
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A report shown as a virtualized list: only the rows on screen get a cell, and
+ * a row is formatted when its cell shows it, so a report over a busy range
+ * costs the same to show as a short one. Give it a list that reads its rows
+ * lazily ({@link AppController#viewRangeTransactions}) and memory stays flat
+ * too. The title, column heading and totals stay in place while the rows scroll.
+ */
+public class ReportView extends BorderPane {
+    private static final Font FONT = Font.font("Monospaced", 12);
+    // Fixed so the list never has to lay out rows to find out how tall they are
+    private static final double ROW_HEIGHT = 20;
+
+    private final Label titleLabel = new Label();
+    private final Label headingLabel = new Label();
+    private final Label totalsLabel = new Label();
+    private final ListView<Transaction> rows = new ListView<>();
+    private Function<Transaction, String> formatter = Transaction::toString;
+
+    public ReportView() {
+        titleLabel.setFont(FONT);
+        headingLabel.setFont(FONT);
+        totalsLabel.setFont(FONT);
+        totalsLabel.setPadding(new Insets(5, 0, 0, 0));
+
+        VBox top = new VBox(5, titleLabel, headingLabel);
+        top.setPadding(new Insets(0, 0, 5, 0));
+        setTop(top);
+
+        rows.setFixedCellSize(ROW_HEIGHT);
+        rows.setCellFactory(lv -> new ListCell<Transaction>() {
+            {
+                setFont(FONT);
+            }
+
+            @Override
+            protected void updateItem(Transaction t, boolean empty) {
+                super.updateItem(t, empty);
+                setText(empty || t == null ? null : formatter.apply(t));
+            }
+        });
+        setCenter(rows);
+        setBottom(totalsLabel);
+    }
+
+    /**
+     * Shows a report. heading and totals may be null to leave them out; with no
+     * rows, empty is shown in their place and the totals are left out.
+     */
+    public void show(String title, String heading, List<Transaction> transactions,
+                     Function<Transaction, String> formatter, String totals, String empty) {
+        this.formatter = formatter;
+        titleLabel.setText(title);
+        setShown(headingLabel, transactions.isEmpty() ? null : heading);
+        setShown(totalsLabel, transactions.isEmpty() ? null : totals);
+        rows.setPlaceholder(new Label(empty));
+        // Wrapped, not copied: the cells read rows straight from the list
+        rows.setItems(FXCollections.observableList(transactions));
+        rows.scrollTo(0);
+    }
+
+    private static void setShown(Label label, String text) {
+        label.setText(text);
+        label.setVisible(text != null);
+        label.setManaged(text != null);
+    }
+}
\ No newline at end of file
@@ -1,4 +1,6 @@
 // ==================== ReportsPage.java ====================
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -7,13 +9,36 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.FileChooser;
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class ReportsPage extends BorderPane {
+    // One report at a time, off the FX thread; a newer request cancels the one before
+    private static final ExecutorService reportExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "reports");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private AppController controller;
-    private TextArea reportArea;
+    private ReportView reportView;
+    // The analysis views are a few lines per year, category or month, so they stay plain text
+    private TextArea analysisArea;
+    private DatePicker datePicker;
+    private ProgressIndicator progress;
+    private Button importCSVButton;
+    // The report being built, and the daily, weekly or monthly report to redo when the date changes
+    private Task<Void> running;
+    private Consumer<LocalDate> periodReport;
 
     public ReportsPage(AppController controller) {
         this.controller = controller;
@@ -21,7 +46,22 @@ public class ReportsPage extends BorderPane {
 
         Label titleLabel = new Label("Reports & Export");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 18));
-        VBox titleBox = new VBox(titleLabel);
+
+        datePicker = new DatePicker(LocalDate.now());
+        datePicker.setOnAction(e -> {
+            if (periodReport != null && datePicker.getValue() != null) {
+                periodReport.accept(datePicker.getValue());
+            }
+        });
+
+        progress = new ProgressIndicator();
+        progress.setPrefSize(24, 24);
+        progress.setVisible(false);
+
+        HBox datePanel = new HBox(10, new Label("Report Date:"), datePicker, progress);
+        datePanel.setAlignment(Pos.CENTER);
+
+        VBox titleBox = new VBox(10, titleLabel, datePanel);
         titleBox.setAlignment(Pos.CENTER);
         titleBox.setPadding(new Insets(0, 0, 20, 0));
         setTop(titleBox);
@@ -30,17 +70,29 @@ public class ReportsPage extends BorderPane {
         buttonPanel.setAlignment(Pos.CENTER);
 
         Button dailyButton = new Button("Daily Report");
-        dailyButton.setOnAction(e -> requestDailyReport(LocalDate.now()));
+        dailyButton.setOnAction(e -> showPeriodReport(this::requestDailyReport));
         buttonPanel.getChildren().add(dailyButton);
 
         Button weeklyButton = new Button("Weekly Report");
-        weeklyButton.setOnAction(e -> requestWeeklyReport(LocalDate.now()));
+        weeklyButton.setOnAction(e -> showPeriodReport(this::requestWeeklyReport));
         buttonPanel.getChildren().add(weeklyButton);
 
         Button monthlyButton = new Button("Monthly Report");
-        monthlyButton.setOnAction(e -> requestMonthlyReport(YearMonth.now()));
+        monthlyButton.setOnAction(e -> showPeriodReport(date -> requestMonthlyReport(YearMonth.from(date))));
         buttonPanel.getChildren().add(monthlyButton);
 
+        Button yearButton = new Button("Year over Year");
+        yearButton.setOnAction(e -> showAnalysis(ReportGenerator::writeYearOverYear));
+        buttonPanel.getChildren().add(yearButton);
+
+        Button categoryButton = new Button("By Category");
+        categoryButton.setOnAction(e -> showAnalysis(ReportGenerator::writeCategoryBreakdown));
+        buttonPanel.getChildren().add(categoryButton);
+
+        Button rollingButton = new Button("Rolling 12 Months");
+        rollingButton.setOnAction(e -> showAnalysis(ReportGenerator::writeRolling));
+        buttonPanel.getChildren().add(rollingButton);
+
         Button exportCSVButton = new Button("Export CSV");
         exportCSVButton.setOnAction(e -> exportCSV());
         buttonPanel.getChildren().add(exportCSVButton);
@@ -49,63 +101,100 @@ public class ReportsPage extends BorderPane {
         exportTXTButton.setOnAction(e -> exportTXT());
         buttonPanel.getChildren().add(exportTXTButton);
 
+        importCSVButton = new Button("Import CSV");
+        importCSVButton.setOnAction(e -> importCSV());
+        buttonPanel.getChildren().add(importCSVButton);
+
         setBottom(buttonPanel);
 
-        reportArea = new TextArea();
-        reportArea.setEditable(false);
-        reportArea.setFont(Font.font("Monospaced", 12));
-        setCenter(reportArea);
+        reportView = new ReportView();
+        analysisArea = new TextArea();
+        analysisArea.setEditable(false);
+        analysisArea.setFont(Font.font("Monospaced", 12));
+        setCenter(reportView);
+    }
+
+    private void showPeriodReport(Consumer<LocalDate> report) {
+        periodReport = report;
+        report.accept(datePicker.getValue() != null ? datePicker.getValue() : LocalDate.now());
     }
 
     public void requestDailyReport(LocalDate date) {
-        List<Transaction> transactions = controller.getDailyTransactions(date);
-        displayReport("Daily Report - " + date, transactions);
+        displayReport("Daily Report - " + date, date, date, () -> controller.getDailySummary(date));
     }
 
     public void requestWeeklyReport(LocalDate date) {
-        List<Transaction> transactions = controller.getWeeklyTransactions(date);
-        displayReport("Weekly Report (Week of " + date + ")", transactions);
+        LocalDate startOfWeek = date.minusDays(date.getDayOfWeek().getValue() - 1);
+        displayReport("Weekly Report (Week of " + date + ")", startOfWeek, startOfWeek.plusDays(6),
+                () -> controller.getWeeklySummary(date));
     }
 
     public void requestMonthlyReport(YearMonth month) {
-        List<Transaction> transactions = controller.getMonthlyTransactions(month);
-        displayReport("Monthly Report - " + month, transactions);
+        displayReport("Monthly Report - " + month, month.atDay(1), month.atEndOfMonth(),
+                () -> controller.getMonthlySummary(month));
+    }
+
+    // Totals are looked up in the background; rows are read and formatted by the view as they scroll into sight
+    private void displayReport(String title, LocalDate from, LocalDate to, Supplier<AggregateCache.Summary> summary) {
+        run(new Task<Void>() {
+            @Override
+            protected Void call() {
+                AggregateCache.Summary totals = summary.get();
+                List<Transaction> rows = totals.getCount() == 0
+                        ? List.of()
+                        : controller.viewRangeTransactions(from, to);
+                String footer = ReportGenerator.formatReportTotals(totals);
+                show(this, () -> {
+                    reportView.show(ReportGenerator.formatReportTitle(title), null, rows,
+                            Transaction::toString, footer, "No transactions found.");
+                    setCenter(reportView);
+                });
+                return null;
+            }
+        });
     }
 
-    private void displayReport(String title, List<Transaction> transactions) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("========================================\n");
-        sb.append(title).append("\n");
-        sb.append("========================================\n\n");
-
-        if (transactions.isEmpty()) {
-            sb.append("No transactions found.\n");
-        } else {
-            for (Transaction t : transactions) {
-                sb.append(t.toString()).append("\n");
+    // Long-range views over the whole ledger
+    private void showAnalysis(BiConsumer<AnalyticsEngine.Analysis, PrintWriter> writer) {
+        periodReport = null;
+        run(new Task<Void>() {
+            @Override
+            protected Void call() {
+                AnalyticsEngine.Analysis analysis = controller.getAnalysis();
+                if (isCancelled()) return null;
+                StringWriter text = new StringWriter();
+                writer.accept(analysis, new PrintWriter(text));
+                show(this, () -> {
+                    analysisArea.setText(text.toString());
+                    setCenter(analysisArea);
+                });
+                return null;
             }
+        });
+    }
 
-            double totalIncome = transactions.stream()
-                    .filter(Transaction::isIncome)
-                    .mapToDouble(Transaction::getAmount)
-                    .sum();
-            double totalExpense = transactions.stream()
-                    .filter(t -> !t.isIncome())
-                    .mapToDouble(Transaction::getAmount)
-                    .sum();
-
-            sb.append("\n--- Summary ---\n");
-            sb.append(String.format("Total Income: $%.2f\n", totalIncome));
-            sb.append(String.format("Total Expense: $%.2f\n", totalExpense));
-            sb.append(String.format("Net Balance: $%.2f\n", totalIncome - totalExpense));
+    // Replaces whatever report is being built with this one
+    private void run(Task<Void> task) {
+        if (running != null) {
+            running.cancel();
         }
+        running = task;
+        progress.visibleProperty().bind(task.runningProperty());
+        task.setOnFailed(e -> System.err.println("Error building report: " + task.getException().getMessage()));
+        reportExecutor.execute(task);
+    }
 
-        reportArea.setText(sb.toString());
+    // Puts a finished report on screen, unless a newer report has replaced it meanwhile
+    private void show(Task<Void> task, Runnable display) {
+        Platform.runLater(() -> {
+            if (task == running && !task.isCancelled()) {
+                display.run();
+            }
+        });
     }
 
     private void exportCSV() {
-        List<Transaction> transactions = controller.getAllTransactions();
-        if (transactions.isEmpty()) {
+        if (!controller.hasTransactions()) {
             showAlert(Alert.AlertType.WARNING, "Warning", "No transactions to export!");
             return;
         }
@@ -118,14 +207,13 @@ public class ReportsPage extends BorderPane {
 
         File file = fileChooser.showSaveDialog(getScene().getWindow());
         if (file != null) {
-            controller.exportCSV(transactions, file.getAbsolutePath());
+            controller.exportAllCSV(file.getAbsolutePath());
             showAlert(Alert.AlertType.INFORMATION, "Success", "CSV exported successfully!");
         }
     }
 
     private void exportTXT() {
-        List<Transaction> transactions = controller.getAllTransactions();
-        if (transactions.isEmpty()) {
+        if (!controller.hasTransactions()) {
             showAlert(Alert.AlertType.WARNING, "Warning", "No transactions to export!");
             return;
         }
@@ -138,11 +226,48 @@ public class ReportsPage extends BorderPane {
 
         File file = fileChooser.showSaveDialog(getScene().getWindow());
         if (file != null) {
-            controller.exportTXT(transactions, file.getAbsolutePath());
+            controller.exportAllTXT(file.getAbsolutePath());
             showAlert(Alert.AlertType.INFORMATION, "Success", "TXT exported successfully!");
         }
     }
 
+    private void importCSV() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import CSV File");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+
+        File file = fileChooser.showOpenDialog(getScene().getWindow());
+        if (file == null) return;
+
+        // Reading and parsing a large statement takes a while; queued with the reports but never cancelled by them
+        Task<TransactionImporter.Result> task = new Task<TransactionImporter.Result>() {
+            @Override
+            protected TransactionImporter.Result call() throws IOException {
+                return controller.importTransactions(file.getAbsolutePath(), TransactionImporter.ColumnMapping.exportedCsv());
+            }
+        };
+        task.setOnSucceeded(e -> {
+            importCSVButton.setDisable(false);
+            TransactionImporter.Result result = task.getValue();
+
+            StringBuilder message = new StringBuilder();
+            message.append("Imported: ").append(result.getImported()).append("\n");
+            message.append("Skipped duplicates: ").append(result.getDuplicates()).append("\n");
+            message.append("Rows with errors: ").append(result.getErrors().size());
+            for (int i = 0; i < Math.min(5, result.getErrors().size()); i++) {
+                message.append("\n  ").append(result.getErrors().get(i));
+            }
+            showAlert(Alert.AlertType.INFORMATION, "Import Complete", message.toString());
+        });
+        task.setOnFailed(e -> {
+            importCSVButton.setDisable(false);
+            showAlert(Alert.AlertType.ERROR, "Error", "Could not read file: " + task.getException().getMessage());
+        });
+        importCSVButton.setDisable(true);
+        reportExecutor.execute(task);
+    }
+
     private void showAlert(Alert.AlertType type, String title, String message) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
@@ -0,0 +1,467 @@
+// ==================== SearchIndex.java ====================
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Word index over transaction titles, notes and categories for search-as-you-type.
+ * Every word of the query matches any indexed word it is a prefix of, and a
+ * transaction has to match all of them. Case is ignored.
+ *
+ * Snapshot rows are indexed one segment at a time, in a file written next to
+ * each segment whenever the segment is (2024-03.7.dat.idx), and memory-mapped on
+ * startup like the segment itself. Layout (big-endian):
+ *   header     magic "PETS", version, segment file size and modified time, rows, term count
+ *   term ends  one int end offset per term into the term bytes
+ *   post ends  one int end index per term into the postings
+ *   terms      UTF-8 bytes, sorted as unsigned bytes
+ *   postings   row numbers within the segment, ascending within each term
+ * Since terms are sorted, all terms with a given prefix are one range, and so are
+ * their postings. Changes made since the snapshot are indexed in memory.
+ */
+public class SearchIndex {
+    static final int MAGIC = 0x50455453; // "PETS"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private final TransactionManager transactionManager;
+    // One per snapshot segment, null where the segment could not be indexed
+    private final Segment[] segments;
+    private final int[] starts;
+    private final int rows;
+
+    // Transactions changed since the snapshot, by slot; a removed one leaves a null behind
+    private final List<Transaction> changed = new ArrayList<>();
+    private final Map<String, Integer> changedSlots = new HashMap<>();
+    private final NavigableMap<String, BitSet> changedTerms = new TreeMap<>();
+
+    private SearchIndex(TransactionManager transactionManager, Segment[] segments, int[] starts) {
+        this.transactionManager = transactionManager;
+        this.segments = segments;
+        this.starts = starts;
+        this.rows = starts[segments.length];
+    }
+
+    public static Path fileFor(Path segmentFile) {
+        return Paths.get(segmentFile + ".idx");
+    }
+
+    /**
+     * Maps the index of each of the manager's snapshot segments and indexes the
+     * changes made since. A segment's file is rebuilt from the segment if it is
+     * missing or belongs to a different one, e.g. after a crash between the two
+     * writes.
+     */
+    public static SearchIndex open(TransactionManager transactionManager) {
+        TransactionManager.Snapshot snapshot = transactionManager.snapshot();
+        SegmentedTransactionStore base = snapshot.base();
+        int count = base != null ? base.segmentCount() : 0;
+        Segment[] segments = new Segment[count];
+        int[] starts = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            Path segmentFile = base.file(i);
+            MappedTransactionStore segment = base.segment(i);
+            starts[i + 1] = starts[i] + segment.size();
+            try {
+                MappedByteBuffer buf = map(fileFor(segmentFile), segmentFile, segment.size());
+                if (buf == null) {
+                    Builder builder = new Builder();
+                    for (int row = 0; row < segment.size(); row++) {
+                        builder.add(row, segment.get(row));
+                    }
+                    builder.write(fileFor(segmentFile), segmentFile, segment.size());
+                    buf = map(fileFor(segmentFile), segmentFile, segment.size());
+                }
+                segments[i] = buf != null ? new Segment(buf) : null;
+            } catch (IOException e) {
+                System.err.println("Error loading search index: " + e.getMessage());
+            }
+        }
+
+        SearchIndex index = new SearchIndex(transactionManager, segments, starts);
+        for (Transaction t : snapshot.changes()) {
+            index.add(t);
+        }
+        return index;
+    }
+
+    // Indexes the rows of a segment that was just written, numbered as TransactionFile numbers them
+    public static void write(Path segmentFile, TransactionColumns columns) throws IOException {
+        Builder builder = new Builder();
+        int[] order = columns.dateOrder();
+        int[][] pooled = new int[columns.poolSize()][];
+        int[][] categories = new int[columns.categoryCount()][];
+        for (int row = 0; row < order.length; row++) {
+            int at = order[row];
+            int category = columns.category(at);
+            if (categories[category] == null) {
+                categories[category] = builder.termIds(columns.categoryName(category));
+            }
+            builder.add(row, categories[category]);
+            builder.add(row, builder.pooledTermIds(pooled, columns, columns.titleRef(at)));
+            if (columns.noteRef(at) >= 0) {
+                builder.add(row, builder.pooledTermIds(pooled, columns, columns.noteRef(at)));
+            }
+        }
+        builder.write(fileFor(segmentFile), segmentFile, order.length);
+    }
+
+    public synchronized void add(Transaction t) {
+        int slot = changed.size();
+        changed.add(t);
+        Integer previous = changedSlots.put(t.getId(), slot);
+        if (previous != null) {
+            changed.set(previous, null);
+        }
+        for (String term : documentTerms(t)) {
+            changedTerms.computeIfAbsent(term, k -> new BitSet()).set(slot);
+        }
+    }
+
+    // Snapshot rows need nothing here; search skips any row the ledger has changed since
+    public synchronized void remove(Transaction t) {
+        Integer slot = changedSlots.remove(t.getId());
+        if (slot != null) {
+            changed.set(slot, null);
+        }
+    }
+
+    /**
+     * Renumbers the in-memory slots without the ones removed or replaced
+     * transactions left behind, once those outnumber the live ones, so the
+     * overlay stays proportional to the changes the ledger holds. Called when
+     * the journal is compacted.
+     */
+    public synchronized void prune() {
+        if (changed.size() - changedSlots.size() <= changedSlots.size()) return;
+
+        List<Transaction> live = new ArrayList<>(changedSlots.size());
+        for (Transaction t : changed) {
+            if (t != null) live.add(t);
+        }
+        changed.clear();
+        changedSlots.clear();
+        changedTerms.clear();
+        for (Transaction t : live) {
+            add(t);
+        }
+    }
+
+    /**
+     * Up to limit transactions matching every word of the query, newest first.
+     * An empty query matches nothing.
+     */
+    public synchronized List<Transaction> search(String query, int limit) {
+        List<String> words = tokens(query);
+        List<Transaction> results = new ArrayList<>();
+        if (words.isEmpty() || limit <= 0) {
+            return results;
+        }
+
+        BitSet slots = null;
+        for (String word : words) {
+            BitSet matches = new BitSet();
+            for (BitSet termSlots : changedTerms.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                matches.or(termSlots);
+            }
+            slots = and(slots, matches);
+        }
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            Transaction t = changed.get(slot);
+            if (t != null) results.add(t);
+        }
+        results.sort(Comparator.comparing(Transaction::getDate).reversed());
+        if (results.size() > limit) {
+            results.subList(limit, results.size()).clear();
+        }
+
+        if (rows > 0) {
+            BitSet baseRows = null;
+            for (String word : words) {
+                baseRows = and(baseRows, baseMatches(word));
+                if (baseRows.isEmpty()) break;
+            }
+            // Rows are in date order, so walking down from the top gives the newest first
+            TransactionManager.Snapshot snapshot = transactionManager.snapshot();
+            List<Transaction> base = new ArrayList<>();
+            for (int row = baseRows.previousSetBit(rows - 1); row >= 0 && base.size() < limit; row = baseRows.previousSetBit(row - 1)) {
+                if (snapshot.isCurrent(row)) {
+                    base.add(snapshot.baseRow(row));
+                }
+            }
+            results = merge(results, base, limit);
+        }
+        return results;
+    }
+
+    // Lower-cased runs of letters and digits
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TERM_LENGTH) {
+                    token.append(Character.toLowerCase(c));
+                }
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> documentTerms(Transaction t) {
+        List<String> terms = tokens(t.getTitle());
+        terms.addAll(tokens(t.getNote()));
+        terms.addAll(tokens(t.getCategory()));
+        return terms;
+    }
+
+    private static BitSet and(BitSet all, BitSet next) {
+        if (all == null) return next;
+        all.and(next);
+        return all;
+    }
+
+    private static List<Transaction> merge(List<Transaction> a, List<Transaction> b, int limit) {
+        List<Transaction> merged = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+        int i = 0, j = 0;
+        while (merged.size() < limit && (i < a.size() || j < b.size())) {
+            if (j == b.size() || (i < a.size() && !a.get(i).getDate().isBefore(b.get(j).getDate()))) {
+                merged.add(a.get(i++));
+            } else {
+                merged.add(b.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    // Snapshot rows with a word starting with prefix, numbered across all segments
+    private BitSet baseMatches(String prefix) {
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+        BitSet matches = new BitSet(rows);
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i] != null) {
+                segments[i].addMatches(key, matches, starts[i]);
+            }
+        }
+        return matches;
+    }
+
+    // One segment's mapped index file
+    private static final class Segment {
+        private final MappedByteBuffer buf;
+        private final int terms;
+        private final int termEndsAt;
+        private final int postingEndsAt;
+        private final int termBytesAt;
+        private final int postingsAt;
+
+        Segment(MappedByteBuffer buf) {
+            this.buf = buf;
+            this.terms = buf.getInt(28);
+            this.termEndsAt = HEADER_BYTES;
+            this.postingEndsAt = termEndsAt + terms * 4;
+            this.termBytesAt = postingEndsAt + terms * 4;
+            this.postingsAt = termBytesAt + termEnd(terms - 1);
+        }
+
+        // Rows with a word starting with key: one range of terms, so one run of postings
+        void addMatches(byte[] key, BitSet matches, int firstRow) {
+            int first = searchTerms(key, false);
+            int last = searchTerms(key, true);
+            int from = first == 0 ? 0 : postingEnd(first - 1);
+            int to = last == 0 ? 0 : postingEnd(last - 1);
+            for (int i = from; i < to; i++) {
+                matches.set(firstRow + buf.getInt(postingsAt + i * 4));
+            }
+        }
+
+        // First term whose first key.length bytes are >= key, or > key when after is set
+        private int searchTerms(byte[] key, boolean after) {
+            int low = 0, high = terms;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compareTermPrefix(mid, key);
+                if (cmp < 0 || (after && cmp == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int compareTermPrefix(int term, byte[] key) {
+            int start = term == 0 ? 0 : termEnd(term - 1);
+            int length = termEnd(term) - start;
+            for (int i = 0; i < Math.min(length, key.length); i++) {
+                int cmp = Integer.compare(buf.get(termBytesAt + start + i) & 0xFF, key[i] & 0xFF);
+                if (cmp != 0) return cmp;
+            }
+            return length < key.length ? -1 : 0;
+        }
+
+        private int termEnd(int term) {
+            return term < 0 ? 0 : buf.getInt(termEndsAt + term * 4);
+        }
+
+        private int postingEnd(int term) {
+            return buf.getInt(postingEndsAt + term * 4);
+        }
+    }
+
+    // The mapped index file, or null if there is none for this segment
+    private static MappedByteBuffer map(Path indexFile, Path segmentFile, int rows) throws IOException {
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return null;
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            boolean matches = buf.getInt(0) == MAGIC
+                    && buf.getInt(4) == VERSION
+                    && buf.getLong(8) == Files.size(segmentFile)
+                    && buf.getLong(16) == Files.getLastModifiedTime(segmentFile).toMillis()
+                    && buf.getInt(24) == rows;
+            return matches ? buf : null;
+        }
+    }
+
+    // Collects (term, row) pairs, then sorts them into postings
+    private static final class Builder {
+        private final Map<String, Integer> termIds = new HashMap<>();
+        private final List<String> termList = new ArrayList<>();
+        private long[] pairs = new long[1024];
+        private int pairCount;
+
+        void add(int row, Transaction t) {
+            add(row, termIds(t.getTitle()));
+            add(row, termIds(t.getNote()));
+            add(row, termIds(t.getCategory()));
+        }
+
+        void add(int row, int[] ids) {
+            for (int id : ids) {
+                if (pairCount == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                }
+                pairs[pairCount++] = ((long) id << 32) | row;
+            }
+        }
+
+        // Each distinct title or note is tokenized once
+        int[] pooledTermIds(int[][] pooled, TransactionColumns columns, int ref) {
+            if (pooled[ref] == null) {
+                pooled[ref] = termIds(columns.pooled(ref));
+            }
+            return pooled[ref];
+        }
+
+        int[] termIds(String text) {
+            List<String> tokens = tokens(text);
+            int[] ids = new int[tokens.size()];
+            for (int i = 0; i < ids.length; i++) {
+                Integer id = termIds.get(tokens.get(i));
+                if (id == null) {
+                    id = termList.size();
+                    termIds.put(tokens.get(i), id);
+                    termList.add(tokens.get(i));
+                }
+                ids[i] = id;
+            }
+            return ids;
+        }
+
+        void write(Path indexFile, Path segmentFile, int rows) throws IOException {
+            // Renumber terms in byte order, then sort the pairs by term and row
+            int termCount = termList.size();
+            byte[][] bytes = new byte[termCount][];
+            Integer[] byBytes = new Integer[termCount];
+            for (int id = 0; id < termCount; id++) {
+                bytes[id] = termList.get(id).getBytes(StandardCharsets.UTF_8);
+                byBytes[id] = id;
+            }
+            Arrays.sort(byBytes, (a, b) -> Arrays.compareUnsigned(bytes[a], bytes[b]));
+            int[] rank = new int[termCount];
+            int termBytes = 0;
+            for (int i = 0; i < termCount; i++) {
+                rank[byBytes[i]] = i;
+                termBytes += bytes[byBytes[i]].length;
+            }
+            for (int i = 0; i < pairCount; i++) {
+                pairs[i] = ((long) rank[(int) (pairs[i] >>> 32)] << 32) | (pairs[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(pairs, 0, pairCount);
+
+            ByteBuffer termEnds = ByteBuffer.allocate(termCount * 4);
+            ByteBuffer termData = ByteBuffer.allocate(termBytes);
+            for (int i = 0; i < termCount; i++) {
+                termData.put(bytes[byBytes[i]]);
+                termEnds.putInt(termData.position());
+            }
+
+            ByteBuffer postingEnds = ByteBuffer.allocate(termCount * 4);
+            ByteBuffer postings = ByteBuffer.allocate(pairCount * 4);
+            int term = 0;
+            for (int i = 0; i < pairCount; i++) {
+                // A word used twice in one transaction is posted once
+                if (i > 0 && pairs[i] == pairs[i - 1]) continue;
+                int pairTerm = (int) (pairs[i] >>> 32);
+                while (term < pairTerm) {
+                    postingEnds.putInt(postings.position() / 4);
+                    term++;
+                }
+                postings.putInt((int) pairs[i]);
+            }
+            while (term < termCount) {
+                postingEnds.putInt(postings.position() / 4);
+                term++;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION)
+                    .putLong(Files.size(segmentFile))
+                    .putLong(Files.getLastModifiedTime(segmentFile).toMillis())
+                    .putInt(rows).putInt(termCount);
+
+            Path tmp = Paths.get(indexFile + ".tmp");
+            ByteBuffer[] sections = { header, termEnds, postingEnds, termData, postings };
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long remaining = 0;
+                for (ByteBuffer section : sections) {
+                    section.flip();
+                    remaining += section.remaining();
+                }
+                while (remaining > 0) {
+                    remaining -= channel.write(sections);
+                }
+            }
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+// ==================== SegmentedTransactionStore.java ====================
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * The snapshot as a run of {@link MappedTransactionStore} segment files (one per
+ * month, see {@link TransactionJournal}), read as if it were one file. Rows are
+ * numbered across the segments in order, and since the segments are in date
+ * order and do not overlap, the rows stay in date order as a whole.
+ *
+ * Each segment is memory-mapped, so a query over one month only pages in that
+ * month's segment.
+ */
+public class SegmentedTransactionStore {
+    private final Path[] files;
+    private final MappedTransactionStore[] segments;
+    // Row number of each segment's first row, then the total
+    private final int[] starts;
+
+    // Empty segments are left out
+    public SegmentedTransactionStore(List<Path> files, List<MappedTransactionStore> segments) {
+        List<Path> keptFiles = new ArrayList<>();
+        List<MappedTransactionStore> kept = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            if (segments.get(i).size() > 0) {
+                keptFiles.add(files.get(i));
+                kept.add(segments.get(i));
+            }
+        }
+        this.files = keptFiles.toArray(new Path[0]);
+        this.segments = kept.toArray(new MappedTransactionStore[0]);
+        this.starts = new int[this.segments.length + 1];
+        for (int i = 0; i < this.segments.length; i++) {
+            starts[i + 1] = starts[i] + this.segments[i].size();
+        }
+    }
+
+    // Maps the files in parallel. They must be in date order.
+    public static SegmentedTransactionStore open(List<Path> files, String legacyCurrency) throws IOException {
+        MappedTransactionStore[] segments = new MappedTransactionStore[files.size()];
+        try {
+            IntStream.range(0, segments.length).parallel().forEach(i -> {
+                try {
+                    segments[i] = MappedTransactionStore.open(files.get(i), legacyCurrency);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(new IOException(files.get(i).getFileName() + ": " + e.getMessage(), e));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new SegmentedTransactionStore(files, List.of(segments));
+    }
+
+    public int size() {
+        return starts[segments.length];
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    public MappedTransactionStore segment(int segment) {
+        return segments[segment];
+    }
+
+    public Path file(int segment) {
+        return files[segment];
+    }
+
+    // Row number of the segment's first row
+    public int start(int segment) {
+        return starts[segment];
+    }
+
+    // Segment holding the row, or segmentCount() past the last row
+    public int segmentOf(int row) {
+        int low = 0, high = segments.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid + 1] <= row) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int epochDay(int row) {
+        int segment = segmentOf(row);
+        return segments[segment].epochDay(row - starts[segment]);
+    }
+
+    // First row whose date is on or after the given date, or size() if none
+    public int firstRowOnOrAfter(LocalDate date) {
+        long target = date.toEpochDay();
+        int low = 0, high = segments.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            MappedTransactionStore segment = segments[mid];
+            if (segment.epochDay(segment.size() - 1) < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == segments.length ? size() : starts[low] + segments[low].firstRowOnOrAfter(date);
+    }
+
+    public long amount(int row) {
+        int segment = segmentOf(row);
+        return segments[segment].amount(row - starts[segment]);
+    }
+
+    public boolean isIncome(int row) {
+        int segment = segmentOf(row);
+        return segments[segment].isIncome(row - starts[segment]);
+    }
+
+    public String category(int row) {
+        int segment = segmentOf(row);
+        return segments[segment].category(row - starts[segment]);
+    }
+
+    public String currency(int row) {
+        int segment = segmentOf(row);
+        return segments[segment].currency(row - starts[segment]);
+    }
+
+    public String id(int row) {
+        int segment = segmentOf(row);
+        return segments[segment].id(row - starts[segment]);
+    }
+
+    // Row holding the given id, or -1
+    public int indexOf(String id) {
+        UUID uuid = TransactionFile.asUuid(id);
+        int hash = TransactionFile.idHash(id, uuid);
+        for (int segment = 0; segment < segments.length; segment++) {
+            int row = segments[segment].indexOf(id, uuid, hash);
+            if (row >= 0) {
+                return starts[segment] + row;
+            }
+        }
+        return -1;
+    }
+
+    public Transaction get(int row) {
+        int segment = segmentOf(row);
+        return segments[segment].get(row - starts[segment]);
+    }
+}
\ No newline at end of file
@@ -1,48 +1,44 @@
 // ==================== Settings.java ====================
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 
 public class Settings implements Serializable {
+    // Pinned to the value settings.dat was written with before spent was dropped
+    private static final long serialVersionUID = -7258186073169341045L;
+    // The budget is still stored as a double, so settings.dat keeps the layout older versions read
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("budget", double.class),
+            new ObjectStreamField("currency", String.class),
+            new ObjectStreamField("currencySymbol", String.class),
+            new ObjectStreamField("baseCurrency", String.class)
+    };
     private static final String SETTINGS_FILE = "settings.dat";
-    private double budget;
-    private double spent;
+    // In minor units of the currency
+    private long budget;
+    // The display currency: totals and the budget are shown in it
     private String currency;
     private String currencySymbol;
+    // What transactions saved before each one recorded its own currency are in
+    private String baseCurrency;
 
     public Settings() {
-        this.budget = 0.0;
-        this.spent = 0.0;
-        this.currency = "USD";
-        this.currencySymbol = "$";
+        this.budget = 0;
+        this.currency = Money.DEFAULT_CURRENCY;
+        this.currencySymbol = Money.symbol(currency);
+        this.baseCurrency = currency;
     }
 
-    public double getBudget() {
+    public long getBudget() {
         return budget;
     }
 
-    public void setBudget(double budget) {
+    public void setBudget(long budget) {
         this.budget = budget;
     }
 
-    public double getSpent() {
-        return spent;
-    }
-
-    public void setSpent(double spent) {
-        this.spent = spent;
-    }
-
-    public void addSpent(double amount) {
-        this.spent += amount;
-    }
-
-    public void subtractSpent(double amount) {
-        this.spent -= amount;
-    }
-
-    public double getRemaining() {
-        return budget - spent;
-    }
-
     public String getCurrency() {
         return currency;
     }
@@ -56,30 +52,73 @@ public class Settings implements Serializable {
         return currencySymbol;
     }
 
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    // Minor-unit digits of the display currency, which the budget uses
+    public int getScale() {
+        return Money.scale(currency);
+    }
+
     private void updateCurrencySymbol() {
-        switch (currency) {
-            case "PKR": currencySymbol = "Rs "; break;
-            case "SAR": currencySymbol = "﷼ "; break;
-            case "EUR": currencySymbol = "€"; break;
-            case "INR": currencySymbol = "₹"; break;
-            case "USD": currencySymbol = "$"; break;
-            case "GBP": currencySymbol = "£"; break;
-            default: currencySymbol = "$";
-        }
+        currencySymbol = Money.symbol(currency);
+    }
+
+    public Settings copy() {
+        Settings copy = new Settings();
+        copy.budget = budget;
+        copy.setCurrency(currency);
+        copy.baseCurrency = baseCurrency;
+        return copy;
     }
 
+    // Writes to a temp file first so a crash mid-save never leaves a truncated settings.dat
     public void save() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(SETTINGS_FILE))) {
+        save(Paths.get(SETTINGS_FILE));
+    }
+
+    public void save(Path file) {
+        File tmp = new File(file + ".tmp");
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(tmp))) {
             oos.writeObject(this);
+        } catch (IOException e) {
+            System.err.println("Error saving settings: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), file,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
             System.err.println("Error saving settings: " + e.getMessage());
         }
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        currency = (String) fields.get("currency", "USD");
+        currencySymbol = (String) fields.get("currencySymbol", "$");
+        // Until currencies were recorded per transaction, everything was in the one selected currency
+        baseCurrency = (String) fields.get("baseCurrency", currency);
+        budget = Money.fromDouble(fields.get("budget", 0.0), getScale());
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("budget", Money.toDouble(budget, getScale()));
+        fields.put("currency", currency);
+        fields.put("currencySymbol", currencySymbol);
+        fields.put("baseCurrency", baseCurrency);
+        out.writeFields();
+    }
+
     public static Settings load() {
-        File file = new File(SETTINGS_FILE);
-        if (file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+        return load(Paths.get(SETTINGS_FILE));
+    }
+
+    public static Settings load(Path file) {
+        if (Files.exists(file)) {
+            try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(file))) {
                 Settings settings = (Settings) ois.readObject();
                 settings.updateCurrencySymbol();
                 return settings;
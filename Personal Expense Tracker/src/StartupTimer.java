@@ -0,0 +1,34 @@
+// ==================== StartupTimer.java ====================
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Milestones on the way from launch to the first usable main window, in
+ * milliseconds since the JVM started. Each milestone keeps the first time it
+ * was reached. Printed as one line once the main window is interactive when
+ * run with -Dexpense.startup.timing=true.
+ */
+public final class StartupTimer {
+    private static final long JVM_START = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final Map<String, Long> marks = new LinkedHashMap<>();
+
+    private StartupTimer() {
+    }
+
+    public static synchronized void mark(String milestone) {
+        marks.putIfAbsent(milestone, System.currentTimeMillis() - JVM_START);
+    }
+
+    public static synchronized Map<String, Long> getMarks() {
+        return new LinkedHashMap<>(marks);
+    }
+
+    public static void report() {
+        if (!Boolean.getBoolean("expense.startup.timing")) return;
+
+        StringBuilder line = new StringBuilder("Startup (ms since launch):");
+        getMarks().forEach((milestone, millis) -> line.append(' ').append(milestone).append('=').append(millis));
+        System.out.println(line);
+    }
+}
\ No newline at end of file
@@ -1,24 +1,46 @@
 // ==================== Transaction.java ====================
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 public class Transaction implements Serializable {
+    // Pinned, with the old field layout below, so transactions.dat files from before the binary format still load.
+    // Those have no currency; whoever reads them fills it in.
+    private static final long serialVersionUID = -7124714551951840952L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("id", String.class),
+            new ObjectStreamField("date", LocalDate.class),
+            new ObjectStreamField("title", String.class),
+            new ObjectStreamField("category", String.class),
+            new ObjectStreamField("amount", double.class),
+            new ObjectStreamField("isIncome", boolean.class),
+            new ObjectStreamField("note", String.class),
+            new ObjectStreamField("currency", String.class)
+    };
+
     private String id;
     private LocalDate date;
     private String title;
     private String category;
-    private double amount;
+    // In minor units of currency, see Money
+    private long amount;
+    private String currency;
     private boolean isIncome;
     private String note;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
-    public Transaction(String id, LocalDate date, String title, String category, double amount, boolean isIncome, String note) {
+    public Transaction(String id, LocalDate date, String title, String category, long amount, String currency,
+                       boolean isIncome, String note) {
         this.id = id;
         this.date = date;
         this.title = title;
         this.category = category;
         this.amount = amount;
+        this.currency = currency;
         this.isIncome = isIncome;
         this.note = note;
     }
@@ -55,14 +77,23 @@ public class Transaction implements Serializable {
         this.category = category;
     }
 
-    public double getAmount() {
+    public long getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(long amount) {
         this.amount = amount;
     }
 
+    // ISO 4217 code
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
     public boolean isIncome() {
         return isIncome;
     }
@@ -100,21 +131,50 @@ public class Transaction implements Serializable {
         return date.format(FORMATTER);
     }
 
-    // This method is critical for ReportsPage
-    public String toString(String currencySymbol) {
-        return String.format("%s | %s | %s %s | %s%.2f | %s",
-                getFormattedDate(),
-                title,
-                getCategoryIcon(),
-                category,
-                currencySymbol,
-                amount,
-                note != null && !note.isEmpty() ? note : "No note");
+    // The amount with its currency symbol, e.g. "€12.50"
+    public String getFormattedAmount() {
+        return appendAmount(new StringBuilder(24)).toString();
+    }
+
+    public StringBuilder appendAmount(StringBuilder sb) {
+        return Money.append(sb.append(Money.symbol(currency)), amount, Money.scale(currency));
     }
 
+    // This method is critical for ReportsPage
     @Override
     public String toString() {
-        return toString("$");
+        StringBuilder sb = new StringBuilder(96);
+        sb.append(getFormattedDate()).append(" | ")
+                .append(title).append(" | ")
+                .append(getCategoryIcon()).append(' ').append(category).append(" | ");
+        appendAmount(sb).append(" | ")
+                .append(note != null && !note.isEmpty() ? note : "No note");
+        return sb.toString();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        id = (String) fields.get("id", null);
+        date = (LocalDate) fields.get("date", null);
+        title = (String) fields.get("title", null);
+        category = (String) fields.get("category", null);
+        amount = Money.fromDouble(fields.get("amount", 0.0), Money.DEFAULT_SCALE);
+        isIncome = fields.get("isIncome", false);
+        note = (String) fields.get("note", null);
+        currency = (String) fields.get("currency", null);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", id);
+        fields.put("date", date);
+        fields.put("title", title);
+        fields.put("category", category);
+        fields.put("amount", Money.toDouble(amount, Money.DEFAULT_SCALE));
+        fields.put("isIncome", isIncome);
+        fields.put("note", note);
+        fields.put("currency", currency);
+        out.writeFields();
     }
 
     @Override
@@ -0,0 +1,48 @@
+// ==================== TransactionCellCache.java ====================
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the list-cell text for each transaction so scrolling does not
+ * re-format rows it has already shown. Entries are keyed by id; each row is
+ * shown in its own currency.
+ */
+public class TransactionCellCache {
+    private static final int MAX_ENTRIES = 5000;
+
+    // Access-ordered so the least recently shown rows are evicted first
+    private final Map<String, String> textById = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final StringBuilder sb = new StringBuilder(64);
+
+    public String getText(Transaction t) {
+        String text = textById.get(t.getId());
+        if (text == null) {
+            text = format(t);
+            textById.put(t.getId(), text);
+        }
+        return text;
+    }
+
+    public void invalidate(String id) {
+        textById.remove(id);
+    }
+
+    public void clear() {
+        textById.clear();
+    }
+
+    private String format(Transaction t) {
+        sb.setLength(0);
+        sb.append(t.isIncome() ? "💰" : "💸").append(' ')
+                .append(t.getTitle()).append(" - ")
+                .append(t.getCategoryIcon()).append(' ')
+                .append(t.getCategory()).append(" - ");
+        t.appendAmount(sb);
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+// ==================== TransactionColumns.java ====================
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Transactions held as parallel primitive arrays instead of one object per row:
+ * epoch day, amount in minor units, currency and category ordinals, an income bit, the id as UUID
+ * bits, and title and note as references into a pool of distinct strings. Used
+ * where the whole ledger has to be in memory at once (writing a snapshot), at a
+ * fraction of the heap a List of Transactions takes. Rows become Transaction
+ * objects only when asked for.
+ */
+public class TransactionColumns {
+    private static final int NO_NOTE = -1;
+
+    private int size;
+    private int[] days = new int[16];
+    private long[] amounts = new long[16];
+    private short[] categories = new short[16];
+    private short[] currencies = new short[16];
+    private long[] incomeBits = new long[1];
+    private long[] idHigh = new long[16];
+    private long[] idLow = new long[16];
+    private int[] titles = new int[16];
+    private int[] notes = new int[16];
+    // Ids that are not UUIDs (from older versions of the app) are rare, so they live on the side
+    private final Map<Integer, String> otherIds = new HashMap<>();
+
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryOrdinals = new HashMap<>();
+    private final List<String> currencyNames = new ArrayList<>();
+    private final Map<String, Integer> currencyOrdinals = new HashMap<>();
+    private final List<String> pool = new ArrayList<>();
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+
+    public static TransactionColumns of(Iterator<Transaction> rows) {
+        TransactionColumns columns = new TransactionColumns();
+        while (rows.hasNext()) {
+            columns.add(rows.next());
+        }
+        return columns;
+    }
+
+    public void add(Transaction t) {
+        if (size == days.length) {
+            grow();
+        }
+        int row = size++;
+
+        days[row] = (int) t.getDate().toEpochDay();
+        amounts[row] = t.getAmount();
+        categories[row] = (short) ordinal(t.getCategory() != null ? t.getCategory() : "", categoryNames, categoryOrdinals);
+        currencies[row] = (short) ordinal(t.getCurrency(), currencyNames, currencyOrdinals);
+        if (t.isIncome()) {
+            incomeBits[row >>> 6] |= 1L << row;
+        }
+
+        UUID uuid = TransactionFile.asUuid(t.getId());
+        if (uuid != null) {
+            idHigh[row] = uuid.getMostSignificantBits();
+            idLow[row] = uuid.getLeastSignificantBits();
+        } else {
+            otherIds.put(row, t.getId());
+        }
+
+        titles[row] = intern(t.getTitle() != null ? t.getTitle() : "");
+        notes[row] = t.getNote() != null ? intern(t.getNote()) : NO_NOTE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int epochDay(int row) {
+        return days[row];
+    }
+
+    public long amount(int row) {
+        return amounts[row];
+    }
+
+    public boolean isIncome(int row) {
+        return (incomeBits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    public int category(int row) {
+        return categories[row];
+    }
+
+    public int categoryCount() {
+        return categoryNames.size();
+    }
+
+    public String categoryName(int ordinal) {
+        return categoryNames.get(ordinal);
+    }
+
+    public int currency(int row) {
+        return currencies[row];
+    }
+
+    public int currencyCount() {
+        return currencyNames.size();
+    }
+
+    public String currencyName(int ordinal) {
+        return currencyNames.get(ordinal);
+    }
+
+    public boolean hasUuidId(int row) {
+        return !otherIds.containsKey(row);
+    }
+
+    public long idHigh(int row) {
+        return idHigh[row];
+    }
+
+    public long idLow(int row) {
+        return idLow[row];
+    }
+
+    public String id(int row) {
+        String other = otherIds.get(row);
+        return other != null ? other : new UUID(idHigh[row], idLow[row]).toString();
+    }
+
+    // Titles and notes are pool references; equal strings share one reference
+    public int titleRef(int row) {
+        return titles[row];
+    }
+
+    public int noteRef(int row) {
+        return notes[row];
+    }
+
+    public int poolSize() {
+        return pool.size();
+    }
+
+    public String pooled(int ref) {
+        return ref == NO_NOTE ? null : pool.get(ref);
+    }
+
+    public Transaction get(int row) {
+        return new Transaction(id(row), LocalDate.ofEpochDay(days[row]), pooled(titles[row]),
+                categoryNames.get(categories[row]), amounts[row], currencyNames.get(currencies[row]), isIncome(row),
+                pooled(notes[row]));
+    }
+
+    // Row numbers sorted by date; rows on the same day keep the order they were added in
+    public int[] dateOrder() {
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = ((long) days[row] << 32) | row;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    private static int ordinal(String value, List<String> names, Map<String, Integer> ordinals) {
+        Integer ordinal = ordinals.get(value);
+        if (ordinal == null) {
+            ordinal = names.size();
+            ordinals.put(value, ordinal);
+            names.add(value);
+        }
+        return ordinal;
+    }
+
+    private int intern(String value) {
+        Integer ref = poolIndex.get(value);
+        if (ref == null) {
+            ref = pool.size();
+            poolIndex.put(value, ref);
+            pool.add(value);
+        }
+        return ref;
+    }
+
+    private void grow() {
+        int capacity = days.length * 2;
+        days = Arrays.copyOf(days, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+        incomeBits = Arrays.copyOf(incomeBits, (capacity + 63) >>> 6);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        notes = Arrays.copyOf(notes, capacity);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,270 @@
+// ==================== TransactionFile.java ====================
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary columnar format for transactions.dat. Rows are written in date order.
+ *
+ * Layout (big-endian):
+ *   header     magic "PETX", version, row count
+ *   categories dictionary count, then length-prefixed UTF-8 names
+ *   currencies the same, for the ISO 4217 codes
+ *   columns    epoch day (int), amount in minor units (long), flags (byte),
+ *              category ordinal (short), currency ordinal (short), id as UUID bits (2 longs)
+ *   heaps      id (only for ids that are not UUIDs), title, note;
+ *              each is one int end offset per row followed by the UTF-8 bytes
+ *   id index   capacity (a power of two), then that many ints: an open-addressing
+ *              table, linearly probed from idHash, of row + 1 (0 for an empty slot)
+ *
+ * Version 3 files have no id index; the reader builds the same table in memory
+ * the first time it looks up an id. Version 2 files also have no currencies, and
+ * version 1 files also hold amounts as doubles. All are still read, with every
+ * row in the currency the reader is given, and the next compaction rewrites them
+ * in the current version.
+ */
+public class TransactionFile {
+    static final int MAGIC = 0x50455458; // "PETX"
+    static final int VERSION = 4;
+    static final int VERSION_NO_ID_INDEX = 3;
+    static final int VERSION_NO_CURRENCIES = 2;
+    static final int VERSION_DOUBLE_AMOUNTS = 1;
+
+    static final int FLAG_INCOME = 1;
+    static final int FLAG_HAS_NOTE = 2;
+    static final int FLAG_UUID_ID = 4;
+
+    private static final short JAVA_SERIALIZATION_MAGIC = (short) 0xACED;
+
+    public static void write(Path file, List<Transaction> transactions) throws IOException {
+        write(file, TransactionColumns.of(transactions.iterator()));
+    }
+
+    public static void write(Path file, TransactionColumns columns) throws IOException {
+        int[] order = columns.dateOrder();
+        int rows = order.length;
+
+        // Each distinct title and note is encoded once
+        byte[][] pooled = new byte[columns.poolSize()][];
+        byte[] empty = new byte[0];
+        byte[][] ids = new byte[rows][];
+        byte[][] titles = new byte[rows][];
+        byte[][] notes = new byte[rows][];
+        int idBytes = 0, titleBytes = 0, noteBytes = 0;
+
+        ByteBuffer days = ByteBuffer.allocate(rows * 4);
+        ByteBuffer amounts = ByteBuffer.allocate(rows * 8);
+        ByteBuffer flags = ByteBuffer.allocate(rows);
+        ByteBuffer categories = ByteBuffer.allocate(rows * 2);
+        ByteBuffer currencies = ByteBuffer.allocate(rows * 2);
+        ByteBuffer uuids = ByteBuffer.allocate(rows * 16);
+        int[] idIndex = new int[idIndexCapacity(rows)];
+
+        for (int i = 0; i < rows; i++) {
+            int row = order[i];
+            int flag = columns.isIncome(row) ? FLAG_INCOME : 0;
+
+            if (columns.hasUuidId(row)) {
+                flag |= FLAG_UUID_ID;
+                uuids.putLong(columns.idHigh(row)).putLong(columns.idLow(row));
+                ids[i] = empty;
+                addToIdIndex(idIndex, idHash(columns.idHigh(row), columns.idLow(row)), i);
+            } else {
+                uuids.putLong(0).putLong(0);
+                ids[i] = columns.id(row).getBytes(StandardCharsets.UTF_8);
+                addToIdIndex(idIndex, idHash(columns.id(row)), i);
+            }
+
+            int noteRef = columns.noteRef(row);
+            if (noteRef >= 0) {
+                flag |= FLAG_HAS_NOTE;
+                notes[i] = encode(columns, pooled, noteRef);
+            } else {
+                notes[i] = empty;
+            }
+            titles[i] = encode(columns, pooled, columns.titleRef(row));
+
+            days.putInt(columns.epochDay(row));
+            amounts.putLong(columns.amount(row));
+            flags.put((byte) flag);
+            categories.putShort((short) columns.category(row));
+            currencies.putShort((short) columns.currency(row));
+
+            idBytes += ids[i].length;
+            titleBytes += titles[i].length;
+            noteBytes += notes[i].length;
+        }
+
+        List<String> categoryNames = new ArrayList<>();
+        for (int ordinal = 0; ordinal < columns.categoryCount(); ordinal++) {
+            categoryNames.add(columns.categoryName(ordinal));
+        }
+        List<String> currencyNames = new ArrayList<>();
+        for (int ordinal = 0; ordinal < columns.currencyCount(); ordinal++) {
+            currencyNames.add(columns.currencyName(ordinal));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(12);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows);
+
+        ByteBuffer index = ByteBuffer.allocate(4 + idIndex.length * 4);
+        index.putInt(idIndex.length);
+        for (int entry : idIndex) {
+            index.putInt(entry);
+        }
+
+        ByteBuffer[] sections = {
+                header, dictionary(categoryNames), dictionary(currencyNames),
+                days, amounts, flags, categories, currencies, uuids,
+                heap(ids, idBytes), heap(titles, titleBytes), heap(notes, noteBytes), index
+        };
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ByteBuffer section : sections) {
+                section.flip();
+            }
+            long remaining = 0;
+            for (ByteBuffer section : sections) {
+                remaining += section.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(sections);
+            }
+        }
+    }
+
+    // legacyCurrency is the currency of every row in files older than version 3
+    public static List<Transaction> read(Path file, String legacyCurrency) throws IOException {
+        MappedTransactionStore store = MappedTransactionStore.open(file, legacyCurrency);
+        List<Transaction> transactions = new ArrayList<>(store.size());
+        for (int row = 0; row < store.size(); row++) {
+            transactions.add(store.get(row));
+        }
+        return transactions;
+    }
+
+    // True if the file was written by the old ObjectOutputStream-based save
+    public static boolean isLegacy(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            channel.read(magic);
+            return magic.position() == 2 && magic.getShort(0) == JAVA_SERIALIZATION_MAGIC;
+        }
+    }
+
+    public static List<Transaction> readLegacy(Path file) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            Object saved = ois.readObject();
+            if (!(saved instanceof List<?>)) {
+                throw new IOException("Not a transaction list: " + (saved == null ? "null" : saved.getClass().getName()));
+            }
+            List<?> list = (List<?>) saved;
+            List<Transaction> transactions = new ArrayList<>(list.size());
+            for (Object item : list) {
+                if (!(item instanceof Transaction)) {
+                    throw new IOException("Not a transaction: " + (item == null ? "null" : item.getClass().getName()));
+                }
+                transactions.add((Transaction) item);
+            }
+            return transactions;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // At most half full, so probes stay short
+    static int idIndexCapacity(int rows) {
+        int capacity = 4;
+        while (capacity < rows * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static void addToIdIndex(int[] index, int hash, int row) {
+        int mask = index.length - 1;
+        int slot = hash & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = row + 1;
+    }
+
+    // UUID ids hash by their bits, so a packed id never has to be turned back into a string
+    static int idHash(String id) {
+        return idHash(id, asUuid(id));
+    }
+
+    // uuid is asUuid(id)
+    static int idHash(String id, UUID uuid) {
+        return uuid != null ? idHash(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) : mix(id.hashCode());
+    }
+
+    static int idHash(long high, long low) {
+        long bits = high ^ low;
+        return mix((int) (bits ^ (bits >>> 32)));
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    static UUID asUuid(String id) {
+        if (id.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(id);
+            // fromString accepts non-canonical forms; only pack ids that round-trip exactly
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] encode(TransactionColumns columns, byte[][] pooled, int ref) {
+        if (pooled[ref] == null) {
+            pooled[ref] = columns.pooled(ref).getBytes(StandardCharsets.UTF_8);
+        }
+        return pooled[ref];
+    }
+
+    private static ByteBuffer dictionary(List<String> names) {
+        List<byte[]> encoded = new ArrayList<>(names.size());
+        int bytes = 4;
+        for (String name : names) {
+            byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+            encoded.add(utf8);
+            bytes += 2 + utf8.length;
+        }
+        ByteBuffer dictionary = ByteBuffer.allocate(bytes);
+        dictionary.putInt(names.size());
+        for (byte[] name : encoded) {
+            dictionary.putShort((short) name.length).put(name);
+        }
+        return dictionary;
+    }
+
+    private static ByteBuffer heap(byte[][] values, int totalBytes) {
+        ByteBuffer heap = ByteBuffer.allocate(values.length * 4 + totalBytes);
+        int end = 0;
+        for (byte[] value : values) {
+            end += value.length;
+            heap.putInt(end);
+        }
+        for (byte[] value : values) {
+            heap.put(value);
+        }
+        return heap;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,361 @@
+// ==================== TransactionImporter.java ====================
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Reads transactions from delimited text files: the CSV that ReportGenerator
+ * exports, or bank statements described by a ColumnMapping. Records are split
+ * sequentially (quoted fields may span lines) and then parsed and validated in
+ * parallel.
+ *
+ * Rows without an id column get a deterministic id derived from their content,
+ * so importing the same file twice does not create duplicates.
+ */
+public class TransactionImporter {
+    // For rows without a currency column
+    private final String defaultCurrency;
+
+    public TransactionImporter(String defaultCurrency) {
+        this.defaultCurrency = defaultCurrency;
+    }
+
+    public Result parse(Path file, ColumnMapping mapping) throws IOException {
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        if (content.startsWith("\uFEFF")) {
+            content = content.substring(1);
+        }
+
+        if (mapping.groupingSeparator == mapping.decimalSeparator) {
+            throw new IllegalArgumentException("The grouping and decimal separators must differ");
+        }
+
+        List<List<String>> records = splitRecords(content, mapping.getDelimiter());
+        int firstRow = 0;
+        if (mapping.hasHeader() && !records.isEmpty()) {
+            mapping.resolveHeader(records.get(0));
+            firstRow = 1;
+        }
+
+        List<List<String>> dataRows = records.subList(firstRow, records.size());
+        String[] contentKeys = new String[dataRows.size()];
+        List<Object> parsed = IntStream.range(0, dataRows.size())
+                .parallel()
+                .mapToObj(i -> parseRow(dataRows.get(i), mapping, i, contentKeys))
+                .collect(Collectors.toList());
+
+        Result result = new Result();
+        Map<String, Integer> occurrences = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < parsed.size(); i++) {
+            Object row = parsed.get(i);
+            if (row instanceof String) {
+                result.errors.add("Row " + (i + 1) + ": " + row);
+                continue;
+            }
+
+            Transaction t = (Transaction) row;
+            if (t.getId() == null) {
+                // Identical rows in one file are legitimate (two coffees on one day), so count them apart
+                int n = occurrences.merge(contentKeys[i], 1, Integer::sum);
+                t.setId(UUID.nameUUIDFromBytes((contentKeys[i] + "#" + n).getBytes(StandardCharsets.UTF_8)).toString());
+            }
+            if (seen.add(t.getId())) {
+                result.transactions.add(t);
+            } else {
+                result.duplicates++;
+            }
+        }
+        return result;
+    }
+
+    // Returns a Transaction, or an error message for the row
+    private Object parseRow(List<String> fields, ColumnMapping mapping, int index, String[] contentKeys) {
+        try {
+            String dateText = field(fields, mapping.dateColumn);
+            String title = field(fields, mapping.titleColumn);
+            String typeText = field(fields, mapping.typeColumn);
+            String category = field(fields, mapping.categoryColumn);
+            String amountText = field(fields, mapping.amountColumn);
+            String note = field(fields, mapping.noteColumn);
+            String id = field(fields, mapping.idColumn);
+            String currencyText = field(fields, mapping.currencyColumn).toUpperCase(Locale.ROOT);
+
+            if (dateText.isEmpty()) return "Missing date";
+            if (title.isEmpty()) return "Missing title";
+            if (amountText.isEmpty()) return "Missing amount";
+
+            String currency = currencyText.isEmpty() ? defaultCurrency : currencyText;
+            if (!Money.isKnownCurrency(currency)) return "Unknown currency '" + currencyText + "'";
+            int scale = Money.scale(currency);
+
+            LocalDate date = LocalDate.parse(dateText, mapping.dateFormat);
+            long amount = Money.parse(mapping.normalizeAmount(amountText), scale);
+
+            boolean isIncome;
+            if (mapping.typeColumn >= 0) {
+                String type = typeText.toLowerCase(Locale.ROOT);
+                if (type.equals("income")) {
+                    isIncome = true;
+                } else if (type.equals("expense")) {
+                    isIncome = false;
+                } else {
+                    return "Unknown type '" + typeText + "'";
+                }
+            } else {
+                // Statements without a type column use the sign: money out is negative
+                isIncome = amount > 0;
+            }
+            amount = Math.abs(amount);
+            if (amount == 0) return "Amount must not be zero";
+
+            if (category.isEmpty()) {
+                category = "Extras";
+            }
+
+            // Minor units only mean something with their currency, so both go in
+            contentKeys[index] = dateText + '\u0000' + title + '\u0000' + isIncome + '\u0000'
+                    + category + '\u0000' + amount + '\u0000' + currency + '\u0000' + note;
+            return new Transaction(id.isEmpty() ? null : id, date, title, category, amount, currency, isIncome, note);
+        } catch (DateTimeParseException e) {
+            return "Invalid date '" + field(fields, mapping.dateColumn) + "'";
+        } catch (NumberFormatException e) {
+            return "Invalid amount '" + field(fields, mapping.amountColumn) + "'";
+        }
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column).trim() : "";
+    }
+
+    // RFC 4180 splitting: quoted fields may contain delimiters, doubled quotes and line breaks
+    static List<List<String>> splitRecords(String content, char delimiter) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = content.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < length && content.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < length && content.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                fields.add(field.toString());
+                field.setLength(0);
+                if (fields.size() > 1 || !fields.get(0).isEmpty()) {
+                    records.add(fields);
+                }
+                fields = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        if (field.length() > 0 || !fields.isEmpty()) {
+            fields.add(field.toString());
+            records.add(fields);
+        }
+        return records;
+    }
+
+    /**
+     * Which column holds which field. Columns can be given by name (matched
+     * against the header row, case-insensitively) or by zero-based index.
+     */
+    public static class ColumnMapping {
+        private char delimiter = ',';
+        private boolean hasHeader = true;
+        private DateTimeFormatter dateFormat = DateTimeFormatter.ISO_LOCAL_DATE;
+        // 0 means amounts have no grouping, so "12,50" is an error rather than 1250
+        private char groupingSeparator = 0;
+        private char decimalSeparator = '.';
+        private final Map<String, String> namedColumns = new HashMap<>();
+        // Named columns a file may leave out
+        private final Set<String> optionalColumns = new HashSet<>();
+
+        int dateColumn = -1;
+        int titleColumn = -1;
+        int typeColumn = -1;
+        int categoryColumn = -1;
+        int amountColumn = -1;
+        int noteColumn = -1;
+        int currencyColumn = -1;
+        int idColumn = -1;
+
+        // Matches the layout written by ReportGenerator.exportToCSV. Files exported before the
+        // Currency and Id columns were added still import; their rows get content ids like any
+        // other id-less file.
+        public static ColumnMapping exportedCsv() {
+            return new ColumnMapping()
+                    .column("date", "Date")
+                    .column("title", "Title")
+                    .column("type", "Type")
+                    .column("category", "Category")
+                    .column("amount", "Amount")
+                    .column("note", "Note")
+                    .optionalColumn("currency", "Currency")
+                    .optionalColumn("id", "Id");
+        }
+
+        // field is one of date, title, type, category, amount, note, currency, id
+        public ColumnMapping column(String field, String headerName) {
+            namedColumns.put(field, headerName);
+            optionalColumns.remove(field);
+            return this;
+        }
+
+        // Like column, but a header without it is fine and the field is left empty
+        public ColumnMapping optionalColumn(String field, String headerName) {
+            namedColumns.put(field, headerName);
+            optionalColumns.add(field);
+            return this;
+        }
+
+        public ColumnMapping column(String field, int index) {
+            switch (field) {
+                case "date": dateColumn = index; break;
+                case "title": titleColumn = index; break;
+                case "type": typeColumn = index; break;
+                case "category": categoryColumn = index; break;
+                case "amount": amountColumn = index; break;
+                case "note": noteColumn = index; break;
+                case "currency": currencyColumn = index; break;
+                case "id": idColumn = index; break;
+                default: throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            return this;
+        }
+
+        public ColumnMapping delimiter(char delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        public ColumnMapping header(boolean hasHeader) {
+            this.hasHeader = hasHeader;
+            return this;
+        }
+
+        public ColumnMapping dateFormat(String pattern) {
+            this.dateFormat = DateTimeFormatter.ofPattern(pattern);
+            return this;
+        }
+
+        // e.g. ',' for "1,234.56", or '.' with decimalSeparator(',') for "1.234,56"
+        public ColumnMapping groupingSeparator(char separator) {
+            this.groupingSeparator = separator;
+            return this;
+        }
+
+        public ColumnMapping decimalSeparator(char separator) {
+            this.decimalSeparator = separator;
+            return this;
+        }
+
+        public char getDelimiter() {
+            return delimiter;
+        }
+
+        public boolean hasHeader() {
+            return hasHeader;
+        }
+
+        // The amount as Money.parse reads it: grouping dropped, decimal separator a point
+        String normalizeAmount(String text) {
+            if (groupingSeparator != 0) {
+                text = text.replace(String.valueOf(groupingSeparator), "");
+            }
+            if (decimalSeparator == '.') {
+                return text;
+            }
+            // Here a point is neither separator, so it must not pass for a decimal point
+            if (text.indexOf('.') >= 0) {
+                throw new NumberFormatException("Unexpected '.' in \"" + text + "\"");
+            }
+            return text.replace(decimalSeparator, '.');
+        }
+
+        void resolveHeader(List<String> header) throws IOException {
+            for (Map.Entry<String, String> entry : namedColumns.entrySet()) {
+                int found = -1;
+                for (int i = 0; i < header.size(); i++) {
+                    if (header.get(i).trim().equalsIgnoreCase(entry.getValue())) {
+                        found = i;
+                        break;
+                    }
+                }
+                if (found >= 0) {
+                    column(entry.getKey(), found);
+                } else if (!optionalColumns.contains(entry.getKey())) {
+                    // Better one clear error than every row failing on its own
+                    throw new IOException("Column \"" + entry.getValue() + "\" not found in header");
+                }
+            }
+        }
+    }
+
+    public static class Result {
+        private final List<Transaction> transactions = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int duplicates;
+        private int imported;
+
+        public List<Transaction> getTransactions() {
+            return transactions;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        // Rows skipped because their id is already in the file or the ledger
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        void markExisting(Set<String> existingIds) {
+            int before = transactions.size();
+            transactions.removeIf(t -> existingIds.contains(t.getId()));
+            duplicates += before - transactions.size();
+        }
+
+        void setImported(int imported) {
+            this.imported = imported;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,612 @@
+// ==================== TransactionJournal.java ====================
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-ahead journal for transactions. Every mutation is encoded as one small
+ * record; records are buffered in memory and appended to the journal file in
+ * batches by flushPending(). Once enough records pile up the journal starts over
+ * and the ledger is written out in the background.
+ *
+ * The ledger on disk is split by month: one segment file per month (see
+ * {@link TransactionFile}) with its search index (see {@link SearchIndex}),
+ * and a small manifest listing them. Each record marks the months it touches,
+ * and compaction rewrites only those, so fixing one old entry rewrites one
+ * month rather than all of history. A segment is never overwritten: the new
+ * version is written under the next generation number and the manifest is
+ * then swapped in one atomic move.
+ *
+ * Manifest layout (big-endian): magic "PETM", version, segment count, then
+ * year, month and generation of each segment, oldest month first.
+ */
+public class TransactionJournal {
+    private static final byte OP_ADD = 1;
+    private static final byte OP_UPDATE = 2;
+    private static final byte OP_DELETE = 3;
+    // Older add and update records, still replayed: 1 and 2 carry the amount as a double,
+    // 4 and 5 as a long in minor units, and neither has a currency
+    private static final byte OP_ADD_MINOR = 4;
+    private static final byte OP_UPDATE_MINOR = 5;
+    private static final byte OP_ADD_CURRENCY = 6;
+    private static final byte OP_UPDATE_CURRENCY = 7;
+    // Also carry the epoch day the transaction was on before, so its old month is known
+    private static final byte OP_UPDATE_FROM = 8;
+    private static final byte OP_DELETE_FROM = 9;
+    private static final int COMPACT_THRESHOLD = 1000;
+    private static final int MANIFEST_MAGIC = 0x5045544D; // "PETM"
+    private static final int MANIFEST_VERSION = 1;
+
+    private final Path snapshotFile;
+    private final Path snapshotBackup;
+    private final Path manifestFile;
+    private final Path segmentDir;
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final String legacyCurrency;
+    private final ExecutorService compactor;
+    private final ByteArrayOutputStream pendingBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pending = new DataOutputStream(pendingBytes);
+    private OutputStream out;
+    private int recordCount;
+    // Month -> generation of its segment file, as in the manifest
+    private TreeMap<YearMonth, Integer> segments = new TreeMap<>();
+    private int nextGeneration = 1;
+    // Months changed since their segment was written
+    private Set<YearMonth> dirty = new TreeSet<>();
+    // Set when the ledger did not load, so compaction never writes a partial one over it
+    private boolean damaged;
+    // A rotated journal is waiting to be folded into the segments (or is about to be)
+    private boolean compactionPending;
+    // Set until the compactor has rotated the journal; records made meanwhile stay buffered
+    private boolean rotating;
+
+    /**
+     * snapshotFile is where older versions kept the whole ledger in one file; it
+     * is split into segments on the first load and then kept as snapshotFile.bak. The manifest and the segments
+     * directory live next to it. legacyCurrency is assumed for transactions
+     * saved before each one recorded its currency.
+     */
+    public TransactionJournal(String snapshotFile, String journalFile, String legacyCurrency) {
+        this.legacyCurrency = legacyCurrency;
+        this.snapshotFile = Paths.get(snapshotFile);
+        this.snapshotBackup = Paths.get(snapshotFile + ".bak");
+        this.manifestFile = this.snapshotFile.resolveSibling("transactions.manifest");
+        this.segmentDir = this.snapshotFile.resolveSibling("segments");
+        this.journalFile = Paths.get(journalFile);
+        this.compactingFile = Paths.get(journalFile + ".compacting");
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "journal-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Maps the segments listed in the manifest, in parallel, and replays any
+     * journal records on top of them. Rows are not decoded here, so startup
+     * time does not grow with the ledger.
+     */
+    public synchronized TransactionManager load() {
+        SegmentedTransactionStore base = null;
+
+        try {
+            if (Files.exists(manifestFile)) {
+                readManifest();
+                removeUnlisted();
+            } else if (Files.exists(snapshotFile)) {
+                migrate();
+            }
+            if (!segments.isEmpty()) {
+                List<Path> files = new ArrayList<>();
+                segments.forEach((month, generation) -> files.add(segmentFile(month, generation)));
+                base = SegmentedTransactionStore.open(files, legacyCurrency);
+            }
+        } catch (Exception e) {
+            damaged = true;
+            System.err.println("Error loading transactions: " + e.getMessage());
+        }
+
+        TransactionManager manager = new TransactionManager(base);
+        // A leftover compacting file means the last compaction never finished
+        recordCount = replay(compactingFile, manager) + replay(journalFile, manager);
+        compactionPending = Files.exists(compactingFile);
+
+        return manager;
+    }
+
+    public synchronized void recordAdd(Transaction t) {
+        append(OP_ADD_CURRENCY, t.getId(), null, t);
+    }
+
+    public synchronized void recordUpdate(Transaction previous, Transaction t) {
+        append(OP_UPDATE_FROM, t.getId(), previous, t);
+    }
+
+    public synchronized void recordDelete(Transaction t) {
+        append(OP_DELETE_FROM, t.getId(), t, null);
+    }
+
+    // Appends all buffered records to the journal file in a single write
+    public synchronized void flushPending() {
+        if (pendingBytes.size() == 0 || rotating) return;
+
+        try {
+            if (out == null) {
+                out = new FileOutputStream(journalFile.toFile(), true);
+            }
+            pendingBytes.writeTo(out);
+            out.flush();
+            pendingBytes.reset();
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+        }
+    }
+
+    public synchronized boolean needsCompaction() {
+        return recordCount >= COMPACT_THRESHOLD;
+    }
+
+    /**
+     * Rotates the journal and rewrites the segments of the months changed since
+     * the last compaction from the given snapshot, on a background thread.
+     * Records appended after this call go to a fresh journal and mark their
+     * months for the next compaction, so the segments never have to be in sync
+     * with them. Only in-memory state changes here; the caller may be the UI.
+     */
+    public synchronized void compact(TransactionManager.Snapshot snapshot) {
+        // Previous compaction still pending; keep appending to the current journal
+        if (damaged || compactionPending) return;
+
+        // Records up to here belong to the rotated journal, the ones after to the fresh one
+        byte[] tail = pendingBytes.toByteArray();
+        pendingBytes.reset();
+        recordCount = 0;
+        Set<YearMonth> months = dirty;
+        dirty = new TreeSet<>();
+        compactionPending = true;
+        rotating = true;
+
+        compactor.submit(() -> {
+            if (rotate(tail, months)) {
+                compactInBackground(snapshot, months);
+            }
+        });
+    }
+
+    // Writes the records the snapshot covers to the journal and moves it aside, on the compactor thread
+    private synchronized boolean rotate(byte[] tail, Set<YearMonth> months) {
+        boolean rotated = false;
+        try {
+            if (tail.length > 0) {
+                if (out == null) {
+                    out = new FileOutputStream(journalFile.toFile(), true);
+                }
+                out.write(tail);
+            }
+            closeStream();
+            if (Files.exists(journalFile)) {
+                Files.move(journalFile, compactingFile, StandardCopyOption.ATOMIC_MOVE);
+            }
+            rotated = true;
+        } catch (IOException e) {
+            System.err.println("Error rotating journal: " + e.getMessage());
+            closeStream();
+            // Still in the journal, so they are folded in by the next compaction
+            dirty.addAll(months);
+            compactionPending = false;
+        }
+        rotating = false;
+        flushPending();
+        return rotated;
+    }
+
+    /**
+     * Rewrites the changed months and empties the journal before returning. The
+     * snapshot must include every record made so far. Runs on the compactor
+     * thread so it queues behind a background compaction instead of racing it.
+     */
+    public void compactNow(TransactionManager.Snapshot snapshot) throws IOException {
+        if (damaged) {
+            throw new IOException("Transactions did not load, so they are not compacted");
+        }
+        Future<?> done = compactor.submit(() -> {
+            synchronized (this) {
+                flushPending();
+                closeStream();
+                Set<YearMonth> months = dirty;
+                dirty = new TreeSet<>();
+                try {
+                    writeSegments(snapshot, months);
+                } catch (IOException e) {
+                    dirty.addAll(months);
+                    throw e;
+                }
+                Files.deleteIfExists(compactingFile);
+                Files.deleteIfExists(journalFile);
+                recordCount = 0;
+                compactionPending = false;
+            }
+            return null;
+        });
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compacting", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Removes every file of the ledger before returning. Runs on the compactor
+     * thread, like compactNow, so a background compaction already under way
+     * finishes first instead of writing segments and a manifest back afterwards.
+     */
+    public void delete() {
+        Future<?> done = compactor.submit(() -> {
+            synchronized (this) {
+                pendingBytes.reset();
+                closeStream();
+                try {
+                    Files.deleteIfExists(journalFile);
+                    Files.deleteIfExists(compactingFile);
+                    Files.deleteIfExists(manifestFile);
+                    Files.deleteIfExists(snapshotFile);
+                    Files.deleteIfExists(snapshotBackup);
+                    Files.deleteIfExists(SearchIndex.fileFor(snapshotFile));
+                    if (Files.isDirectory(segmentDir)) {
+                        try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentDir)) {
+                            for (Path file : files) {
+                                Files.deleteIfExists(file);
+                            }
+                        }
+                        Files.deleteIfExists(segmentDir);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error deleting journal: " + e.getMessage());
+                }
+                recordCount = 0;
+                segments = new TreeMap<>();
+                dirty = new TreeSet<>();
+                damaged = false;
+                compactionPending = false;
+            }
+        });
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error deleting journal: " + e.getCause().getMessage());
+        }
+    }
+
+    // Also lets a running compaction finish, so a short-lived process does not throw its work away
+    public void close() {
+        synchronized (this) {
+            flushPending();
+            closeStream();
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            // Anything held back while a queued rotation ran
+            flushPending();
+            closeStream();
+        }
+    }
+
+    private void compactInBackground(TransactionManager.Snapshot snapshot, Set<YearMonth> months) {
+        try {
+            writeSegments(snapshot, months);
+            synchronized (this) {
+                Files.deleteIfExists(compactingFile);
+                compactionPending = false;
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                // Left for compactNow or the next start, which replays the rotated journal
+                dirty.addAll(months);
+            }
+            System.err.println("Error compacting transactions: " + e.getMessage());
+        }
+    }
+
+    // Writes the months' new segments from the snapshot, then swaps the manifest over to them
+    private void writeSegments(TransactionManager.Snapshot snapshot, Set<YearMonth> months) throws IOException {
+        if (months.isEmpty()) return;
+
+        Map<YearMonth, Integer> written = new HashMap<>();
+        for (YearMonth month : months) {
+            List<Transaction> rows = snapshot.getByRange(month.atDay(1), month.atEndOfMonth());
+            // A month with nothing left in it is dropped from the manifest
+            written.put(month, rows.isEmpty() ? null : writeSegment(month, TransactionColumns.of(rows.iterator())));
+        }
+
+        Map<YearMonth, Integer> replaced = new HashMap<>();
+        synchronized (this) {
+            TreeMap<YearMonth, Integer> next = new TreeMap<>(segments);
+            for (Map.Entry<YearMonth, Integer> entry : written.entrySet()) {
+                Integer old = entry.getValue() != null
+                        ? next.put(entry.getKey(), entry.getValue())
+                        : next.remove(entry.getKey());
+                if (old != null) {
+                    replaced.put(entry.getKey(), old);
+                }
+            }
+            writeManifest(next);
+            segments = next;
+        }
+        // Still mapped by the running ledger; where the OS refuses, the next start removes them
+        replaced.forEach((month, generation) -> deleteSegment(segmentFile(month, generation)));
+    }
+
+    // Writes a new segment file for the month and returns its generation
+    private int writeSegment(YearMonth month, TransactionColumns rows) throws IOException {
+        int generation;
+        synchronized (this) {
+            generation = nextGeneration++;
+        }
+        Files.createDirectories(segmentDir);
+        Path file = segmentFile(month, generation);
+        TransactionFile.write(file, rows);
+        try {
+            SearchIndex.write(file, rows);
+        } catch (IOException e) {
+            // Not fatal: the index is rebuilt from the segment on the next start
+            System.err.println("Error writing search index: " + e.getMessage());
+        }
+        return generation;
+    }
+
+    private Path segmentFile(YearMonth month, int generation) {
+        return segmentDir.resolve(month + "." + generation + ".dat");
+    }
+
+    private static void deleteSegment(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(SearchIndex.fileFor(file));
+        } catch (IOException e) {
+            System.err.println("Error deleting segment: " + e.getMessage());
+        }
+    }
+
+    private void readManifest() throws IOException {
+        TreeMap<YearMonth, Integer> read = new TreeMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestFile)))) {
+            if (in.readInt() != MANIFEST_MAGIC) {
+                throw new IOException("Not a transaction manifest");
+            }
+            int version = in.readInt();
+            if (version != MANIFEST_VERSION) {
+                throw new IOException("Unsupported manifest version " + version);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                YearMonth month = YearMonth.of(in.readInt(), in.readInt());
+                int generation = in.readInt();
+                read.put(month, generation);
+                nextGeneration = Math.max(nextGeneration, generation + 1);
+            }
+        }
+        segments = read;
+    }
+
+    private void writeManifest(TreeMap<YearMonth, Integer> manifest) throws IOException {
+        Path tmp = Paths.get(manifestFile + ".tmp");
+        try (DataOutputStream manifestOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            manifestOut.writeInt(MANIFEST_MAGIC);
+            manifestOut.writeInt(MANIFEST_VERSION);
+            manifestOut.writeInt(manifest.size());
+            for (Map.Entry<YearMonth, Integer> entry : manifest.entrySet()) {
+                manifestOut.writeInt(entry.getKey().getYear());
+                manifestOut.writeInt(entry.getKey().getMonthValue());
+                manifestOut.writeInt(entry.getValue());
+            }
+        }
+        Files.move(tmp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Segments a compaction wrote but never got into the manifest, or ones it replaced
+    private void removeUnlisted() throws IOException {
+        if (!Files.isDirectory(segmentDir)) return;
+
+        Set<Path> listed = new HashSet<>();
+        segments.forEach((month, generation) -> {
+            listed.add(segmentFile(month, generation));
+            listed.add(SearchIndex.fileFor(segmentFile(month, generation)));
+        });
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentDir)) {
+            for (Path file : files) {
+                if (!listed.contains(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    // One-time split of the single snapshot file older versions kept into month segments
+    private void migrate() throws IOException {
+        Iterator<Transaction> rows;
+        if (TransactionFile.isLegacy(snapshotFile)) {
+            // The old ObjectOutputStream snapshot, in no particular order
+            List<Transaction> legacy = TransactionFile.readLegacy(snapshotFile);
+            for (Transaction t : legacy) {
+                t.setCurrency(legacyCurrency);
+            }
+            legacy.sort(Comparator.comparing(Transaction::getDate));
+            rows = legacy.iterator();
+        } else {
+            MappedTransactionStore store = MappedTransactionStore.open(snapshotFile, legacyCurrency);
+            rows = new Iterator<Transaction>() {
+                private int row;
+
+                @Override
+                public boolean hasNext() {
+                    return row < store.size();
+                }
+
+                @Override
+                public Transaction next() {
+                    return store.get(row++);
+                }
+            };
+        }
+
+        TreeMap<YearMonth, Integer> split = new TreeMap<>();
+        YearMonth month = null;
+        TransactionColumns columns = null;
+        while (rows.hasNext()) {
+            Transaction t = rows.next();
+            if (!YearMonth.from(t.getDate()).equals(month)) {
+                if (columns != null) {
+                    split.put(month, writeSegment(month, columns));
+                }
+                month = YearMonth.from(t.getDate());
+                columns = new TransactionColumns();
+            }
+            columns.add(t);
+        }
+        if (columns != null) {
+            split.put(month, writeSegment(month, columns));
+        }
+        writeManifest(split);
+        segments = split;
+
+        try {
+            // Kept, not deleted, so a bad migration can still be undone by hand
+            Files.move(snapshotFile, snapshotBackup, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(SearchIndex.fileFor(snapshotFile));
+        } catch (IOException e) {
+            // Harmless: with a manifest in place the old file is never read again
+            System.err.println("Error setting old snapshot aside: " + e.getMessage());
+        }
+    }
+
+    private void append(byte op, String id, Transaction previous, Transaction t) {
+        int mark = pendingBytes.size();
+        try {
+            pending.writeByte(op);
+            pending.writeUTF(id);
+            if (previous != null) {
+                pending.writeLong(previous.getDate().toEpochDay());
+            }
+            if (t != null) {
+                pending.writeLong(t.getDate().toEpochDay());
+                pending.writeUTF(t.getTitle());
+                pending.writeUTF(t.getCategory());
+                pending.writeLong(t.getAmount());
+                pending.writeUTF(t.getCurrency());
+                pending.writeBoolean(t.isIncome());
+                pending.writeBoolean(t.getNote() != null);
+                if (t.getNote() != null) {
+                    pending.writeUTF(t.getNote());
+                }
+            }
+            recordCount++;
+            if (previous != null) {
+                dirty.add(YearMonth.from(previous.getDate()));
+            }
+            if (t != null) {
+                dirty.add(YearMonth.from(t.getDate()));
+            }
+        } catch (IOException e) {
+            // e.g. a note longer than writeUTF allows; drop the half-written record
+            byte[] kept = Arrays.copyOf(pendingBytes.toByteArray(), mark);
+            pendingBytes.reset();
+            pendingBytes.write(kept, 0, kept.length);
+            System.err.println("Error encoding journal record: " + e.getMessage());
+        }
+    }
+
+    private int replay(Path file, TransactionManager manager) {
+        if (!Files.exists(file)) return 0;
+
+        int count = 0;
+        long validLength = 0;
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            ByteArrayInputStream buffer = new ByteArrayInputStream(bytes);
+            DataInputStream in = new DataInputStream(buffer);
+            try {
+                while (buffer.available() > 0) {
+                    byte op = in.readByte();
+                    String id = in.readUTF();
+                    if (op == OP_UPDATE_FROM || op == OP_DELETE_FROM) {
+                        dirty.add(YearMonth.from(LocalDate.ofEpochDay(in.readLong())));
+                    } else if (op != OP_ADD && op != OP_ADD_MINOR && op != OP_ADD_CURRENCY) {
+                        // Older records do not say which month the transaction was in before
+                        dirty.addAll(segments.keySet());
+                    }
+                    if (op == OP_DELETE || op == OP_DELETE_FROM) {
+                        manager.deleteTransaction(id);
+                    } else {
+                        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                        String title = in.readUTF();
+                        String category = in.readUTF();
+                        long amount = op == OP_ADD || op == OP_UPDATE
+                                ? Money.fromDouble(in.readDouble(), Money.scale(legacyCurrency))
+                                : in.readLong();
+                        String currency = op == OP_ADD_CURRENCY || op == OP_UPDATE_CURRENCY || op == OP_UPDATE_FROM
+                                ? in.readUTF() : legacyCurrency;
+                        boolean isIncome = in.readBoolean();
+                        String note = in.readBoolean() ? in.readUTF() : null;
+                        manager.addTransaction(new Transaction(id, date, title, category, amount, currency, isIncome, note));
+                        dirty.add(YearMonth.from(date));
+                    }
+                    validLength = bytes.length - buffer.available();
+                    count++;
+                }
+            } catch (EOFException e) {
+                // Torn last record from a crash mid-append; drop it so new records line up
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(validLength);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error replaying journal: " + e.getMessage());
+        }
+        return count;
+    }
+
+    private void closeStream() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.err.println("Error closing journal: " + e.getMessage());
+            }
+            out = null;
+        }
+    }
+}
\ No newline at end of file
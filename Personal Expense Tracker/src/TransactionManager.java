@@ -1,70 +1,564 @@
 // ==================== TransactionManager.java ====================
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+/**
+ * The ledger: a memory-mapped snapshot plus everything added or changed since.
+ *
+ * All of it lives in one immutable State. Readers grab the current State and
+ * work on it without locking, so an export or an API request sees one consistent
+ * version of the ledger however long it runs. Writers are serialized and
+ * publish a new State; the in-memory maps are persistent ({@link HashTrie}), so a
+ * write copies a few small nodes rather than the whole ledger.
+ */
 public class TransactionManager {
-    private List<Transaction> allTransactions;
+    private volatile State state;
 
     public TransactionManager() {
-        this.allTransactions = new ArrayList<>();
+        this(null);
     }
 
-    public void addTransaction(Transaction t) {
+    public TransactionManager(SegmentedTransactionStore base) {
+        this.state = new State(base, HashTrie.empty(), HashTrie.empty(), new String[16], 0,
+                Integer.MAX_VALUE, Integer.MIN_VALUE);
+    }
+
+    public synchronized void addTransaction(Transaction t) {
         if (t.getId() == null || t.getId().isEmpty()) {
             t.setId(UUID.randomUUID().toString());
         }
-        allTransactions.add(t);
+        State s = state;
+        Change previous = s.byId.get(t.getId());
+        // Re-adding a live id keeps its place in the order, like LinkedHashMap.put
+        state = previous != null && previous.transaction != null
+                ? s.replace(previous, t)
+                : s.append(t);
     }
 
-    public void deleteTransaction(String id) {
-        allTransactions.removeIf(t -> t.getId().equals(id));
+    // Returns the transaction that was deleted, or null if there was none
+    public synchronized Transaction deleteTransaction(String id) {
+        State s = state;
+        Change previous = s.byId.get(id);
+        Transaction deleted = previous != null ? previous.transaction : getBaseRow(s, id);
+        if (deleted == null) return null;
+
+        if (previous != null) {
+            s = s.withoutDay(previous.transaction);
+        }
+        // Keep a tombstone while there is a snapshot row it may have to hide
+        HashTrie<String, Change> byId = s.base != null
+                ? s.byId.put(id, new Change(null, -1))
+                : s.byId.remove(id);
+        state = s.with(byId);
+        return deleted;
     }
 
-    public void updateTransaction(Transaction updated) {
-        for (int i = 0; i < allTransactions.size(); i++) {
-            if (allTransactions.get(i).getId().equals(updated.getId())) {
-                allTransactions.set(i, updated);
-                break;
-            }
+    // Returns the version that was replaced, or null (changing nothing) if there was none
+    public synchronized Transaction updateTransaction(Transaction updated) {
+        State s = state;
+        Change change = s.byId.get(updated.getId());
+        if (change != null) {
+            if (change.transaction == null) return null;
+            state = s.replace(change, updated);
+            return change.transaction;
         }
+
+        Transaction previous = getBaseRow(s, updated.getId());
+        if (previous != null) {
+            state = s.append(updated);
+        }
+        return previous;
     }
 
     public Transaction getTransactionById(String id) {
-        return allTransactions.stream()
-                .filter(t -> t.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        State s = state;
+        Change change = s.byId.get(id);
+        return change != null ? change.transaction : getBaseRow(s, id);
+    }
+
+    // The snapshot row for an id, ignoring the changes since
+    private static Transaction getBaseRow(State s, String id) {
+        if (s.base == null) {
+            return null;
+        }
+        int row = s.base.indexOf(id);
+        return row >= 0 ? s.base.get(row) : null;
     }
 
     public List<Transaction> getByDate(LocalDate date) {
-        return allTransactions.stream()
-                .filter(t -> t.getDate().equals(date))
-                .collect(Collectors.toList());
+        return getByRange(date, date);
     }
 
     public List<Transaction> getByWeek(LocalDate date) {
         LocalDate startOfWeek = date.minusDays(date.getDayOfWeek().getValue() - 1);
         LocalDate endOfWeek = startOfWeek.plusDays(6);
 
-        return allTransactions.stream()
-                .filter(t -> !t.getDate().isBefore(startOfWeek) && !t.getDate().isAfter(endOfWeek))
-                .collect(Collectors.toList());
+        return getByRange(startOfWeek, endOfWeek);
     }
 
     public List<Transaction> getByMonth(YearMonth month) {
-        return allTransactions.stream()
-                .filter(t -> {
-                    YearMonth transactionMonth = YearMonth.from(t.getDate());
-                    return transactionMonth.equals(month);
-                })
-                .collect(Collectors.toList());
+        return getByRange(month.atDay(1), month.atEndOfMonth());
+    }
+
+    // Date-ordered; base and in-memory rows are merged since both are already sorted by date
+    public List<Transaction> getByRange(LocalDate from, LocalDate to) {
+        return getByRange(state, from, to);
+    }
+
+    private static List<Transaction> getByRange(State s, LocalDate from, LocalDate to) {
+        List<Transaction> changed = changedInRange(s, from, to);
+        if (s.base == null) {
+            return changed;
+        }
+
+        List<Transaction> result = new ArrayList<>();
+        int next = 0;
+        long lastBaseDay = to.toEpochDay();
+        for (int row = s.base.firstRowOnOrAfter(from); row < s.base.size() && s.base.epochDay(row) <= lastBaseDay; row++) {
+            Transaction t = s.base.get(row);
+            if (s.byId.containsKey(t.getId())) continue;
+
+            while (next < changed.size() && changed.get(next).getDate().isBefore(t.getDate())) {
+                result.add(changed.get(next++));
+            }
+            result.add(t);
+        }
+        result.addAll(changed.subList(next, changed.size()));
+        return result;
+    }
+
+    /**
+     * Same rows as getByRange, but snapshot rows are only decoded when read, so
+     * a viewer showing a page of a busy range never holds more than that page.
+     * Without edits the list is just a span of snapshot rows; otherwise it keeps
+     * one int per row saying where the row comes from.
+     */
+    public List<Transaction> viewRange(LocalDate from, LocalDate to) {
+        return viewRange(state, from, to);
+    }
+
+    private static List<Transaction> viewRange(State s, LocalDate from, LocalDate to) {
+        List<Transaction> changed = changedInRange(s, from, to);
+        if (s.base == null) {
+            return changed;
+        }
+
+        int firstRow = s.base.firstRowOnOrAfter(from);
+        int endRow = to.isBefore(LocalDate.MAX) ? s.base.firstRowOnOrAfter(to.plusDays(1)) : s.base.size();
+        if (s.byId.size() == 0) {
+            return new RangeView(s.base, firstRow, endRow - firstRow, null, changed);
+        }
+
+        // Merged in date order like getByRange: a snapshot row, or -1 - its index in changed
+        int[] positions = new int[endRow - firstRow + changed.size()];
+        int size = 0;
+        int next = 0;
+        for (int row = firstRow; row < endRow; row++) {
+            if (s.byId.containsKey(s.base.id(row))) continue;
+
+            long day = s.base.epochDay(row);
+            while (next < changed.size() && changed.get(next).getDate().toEpochDay() < day) {
+                positions[size++] = -1 - next++;
+            }
+            positions[size++] = row;
+        }
+        while (next < changed.size()) {
+            positions[size++] = -1 - next++;
+        }
+        return new RangeView(s.base, 0, size, positions, changed);
+    }
+
+    // The whole ledger in getAllTransactions order, snapshot rows decoded only when read
+    public LedgerView viewAll() {
+        return new LedgerView(state);
+    }
+
+    // Added or edited transactions dated within the range, by day
+    private static List<Transaction> changedInRange(State s, LocalDate from, LocalDate to) {
+        List<Transaction> changed = new ArrayList<>();
+        long first = Math.max(from.toEpochDay(), s.firstDay);
+        long last = Math.min(to.toEpochDay(), s.lastDay);
+        for (long day = first; day <= last; day++) {
+            List<Transaction> onDay = s.byDay.get((int) day);
+            if (onDay != null) {
+                changed.addAll(onDay);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Same rows as getByRange, handed over as plain values and in no particular
+     * order, for aggregations. Snapshot rows are read straight from the mapped
+     * columns; only when edits since the snapshot exist is each row's id decoded
+     * to check whether an edit hides it.
+     */
+    public void visitRange(LocalDate from, LocalDate to, RowVisitor visitor) {
+        visitRange(state, from, to, visitor);
+    }
+
+    // The ledger as it is now; parallel readers share one so they all see the same version
+    public Snapshot snapshot() {
+        return new Snapshot(state);
+    }
+
+    private static void visitRange(State s, LocalDate from, LocalDate to, RowVisitor visitor) {
+        long first = Math.max(from.toEpochDay(), s.firstDay);
+        long last = Math.min(to.toEpochDay(), s.lastDay);
+        for (long day = first; day <= last; day++) {
+            List<Transaction> onDay = s.byDay.get((int) day);
+            if (onDay == null) continue;
+            for (Transaction t : onDay) {
+                visitor.visit((int) day, t.isIncome(), t.getCategory(), t.getAmount(), t.getCurrency());
+            }
+        }
+        if (s.base == null) {
+            return;
+        }
+
+        boolean edited = s.byId.size() > 0;
+        long lastBaseDay = to.toEpochDay();
+        int firstRow = s.base.firstRowOnOrAfter(from);
+        // Segment by segment, so each row is read straight from its own segment's columns
+        for (int i = s.base.segmentOf(firstRow); i < s.base.segmentCount(); i++) {
+            MappedTransactionStore segment = s.base.segment(i);
+            for (int row = Math.max(0, firstRow - s.base.start(i)); row < segment.size(); row++) {
+                int day = segment.epochDay(row);
+                if (day > lastBaseDay) return;
+                if (edited && s.byId.containsKey(segment.id(row))) continue;
+                visitor.visit(day, segment.isIncome(row), segment.category(row), segment.amount(row),
+                        segment.currency(row));
+            }
+        }
+    }
+
+    public interface RowVisitor {
+        void visit(int epochDay, boolean isIncome, String category, long amount, String currency);
+    }
+
+    public static final class Snapshot {
+        private final State state;
+
+        private Snapshot(State state) {
+            this.state = state;
+        }
+
+        public void visitRange(LocalDate from, LocalDate to, RowVisitor visitor) {
+            TransactionManager.visitRange(state, from, to, visitor);
+        }
+
+        public List<Transaction> getByRange(LocalDate from, LocalDate to) {
+            return TransactionManager.getByRange(state, from, to);
+        }
+
+        // Dates of the earliest and latest rows (deleted snapshot rows included), or null when there are none
+        public LocalDate firstDate() {
+            int first = state.firstDay;
+            if (state.base != null && state.base.size() > 0) {
+                first = Math.min(first, state.base.epochDay(0));
+            }
+            return first == Integer.MAX_VALUE ? null : LocalDate.ofEpochDay(first);
+        }
+
+        public LocalDate lastDate() {
+            int last = state.lastDay;
+            if (state.base != null && state.base.size() > 0) {
+                last = Math.max(last, state.base.epochDay(state.base.size() - 1));
+            }
+            return last == Integer.MIN_VALUE ? null : LocalDate.ofEpochDay(last);
+        }
+
+        // The snapshot segments the ledger was loaded from, or null if there were none
+        public SegmentedTransactionStore base() {
+            return state.base;
+        }
+
+        // A row of the snapshot by row number, including ones a later change hides
+        public Transaction baseRow(int row) {
+            return state.base.get(row);
+        }
+
+        // False if the row was edited or deleted after the snapshot was written
+        public boolean isCurrent(int row) {
+            return state.byId.size() == 0 || !state.byId.containsKey(state.base.id(row));
+        }
+
+        // Transactions added or edited since the snapshot was written, oldest first
+        public List<Transaction> changes() {
+            return TransactionManager.changes(state);
+        }
+    }
+
+    private static List<Transaction> changes(State s) {
+        List<Transaction> changes = new ArrayList<>();
+        for (int at = 0; at < s.orderLength; at++) {
+            Change change = s.byId.get(s.order[at]);
+            if (change != null && change.transaction != null && change.position == at) {
+                changes.add(change.transaction);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * One version of the whole ledger as a list, in getAllTransactions order:
+     * the snapshot rows no change hides, then the changes. It holds the hidden
+     * rows (found through the id index) and the changes, nothing per snapshot
+     * row, so a list over a million rows costs as much as one over a hundred.
+     */
+    public static final class LedgerView extends AbstractList<Transaction> implements RandomAccess {
+        private final SegmentedTransactionStore base;
+        private final int baseSize;
+        // Snapshot rows an edit or delete hides, ascending
+        private final int[] hidden;
+        private final List<Transaction> changes;
+        private final Map<String, Integer> changeIndex = new HashMap<>();
+
+        private LedgerView(State s) {
+            base = s.base;
+            baseSize = base != null ? base.size() : 0;
+            if (base != null && s.byId.size() > 0) {
+                int[] rows = new int[s.byId.size()];
+                int[] count = new int[1];
+                s.byId.forEach((id, change) -> {
+                    int row = base.indexOf(id);
+                    if (row >= 0) {
+                        rows[count[0]++] = row;
+                    }
+                });
+                hidden = Arrays.copyOf(rows, count[0]);
+                Arrays.sort(hidden);
+            } else {
+                hidden = new int[0];
+            }
+            changes = TransactionManager.changes(s);
+            for (int i = 0; i < changes.size(); i++) {
+                changeIndex.put(changes.get(i).getId(), i);
+            }
+        }
+
+        @Override
+        public Transaction get(int index) {
+            Objects.checkIndex(index, size());
+            int shownRows = baseSize - hidden.length;
+            return index < shownRows ? base.get(baseRow(index)) : changes.get(index - shownRows);
+        }
+
+        @Override
+        public int size() {
+            return baseSize - hidden.length + changes.size();
+        }
+
+        // Where the transaction with this id is in the list, or -1
+        public int positionOf(String id) {
+            Integer change = changeIndex.get(id);
+            if (change != null) {
+                return baseSize - hidden.length + change;
+            }
+            int row = base != null ? base.indexOf(id) : -1;
+            if (row < 0) {
+                return -1;
+            }
+            int before = Arrays.binarySearch(hidden, row);
+            return before >= 0 ? -1 : row - (-before - 1);
+        }
+
+        // The snapshot row shown at index: hidden[k] - k rows are shown before hidden[k]
+        private int baseRow(int index) {
+            int low = 0, high = hidden.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (hidden[mid] - mid <= index) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return index + low;
+        }
     }
 
     public List<Transaction> getAllTransactions() {
-        return new ArrayList<>(allTransactions);
+        List<Transaction> all = new ArrayList<>();
+        iterator().forEachRemaining(all::add);
+        return all;
+    }
+
+    // Which of the given ids are already in the ledger; snapshot rows are found through the segments' id indexes
+    public Set<String> findExisting(Set<String> ids) {
+        State s = state;
+        Set<String> existing = new HashSet<>();
+        for (String id : ids) {
+            Change change = s.byId.get(id);
+            if (change != null ? change.transaction != null : s.base != null && s.base.indexOf(id) >= 0) {
+                existing.add(id);
+            }
+        }
+        return existing;
+    }
+
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    // Same order as getAllTransactions, but base rows are decoded one at a time as the caller advances
+    public Iterator<Transaction> iterator() {
+        State s = state;
+
+        return new Iterator<Transaction>() {
+            private int row = 0;
+            private int position = 0;
+            private Transaction next = advance();
+
+            private Transaction advance() {
+                while (s.base != null && row < s.base.size()) {
+                    Transaction t = s.base.get(row++);
+                    if (!s.byId.containsKey(t.getId())) return t;
+                }
+                while (position < s.orderLength) {
+                    int at = position++;
+                    Change change = s.byId.get(s.order[at]);
+                    // An id deleted and added again shows up at its latest position only
+                    if (change != null && change.transaction != null && change.position == at) {
+                        return change.transaction;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Transaction next() {
+                if (next == null) throw new NoSuchElementException();
+                Transaction t = next;
+                next = advance();
+                return t;
+            }
+        };
+    }
+
+    // The rows of one range from one version of the ledger; see viewRange
+    private static final class RangeView extends AbstractList<Transaction> implements RandomAccess {
+        private final SegmentedTransactionStore base;
+        private final int firstRow;
+        private final int size;
+        // Null when the rows are simply firstRow onwards
+        private final int[] positions;
+        private final List<Transaction> changed;
+
+        RangeView(SegmentedTransactionStore base, int firstRow, int size, int[] positions, List<Transaction> changed) {
+            this.base = base;
+            this.firstRow = firstRow;
+            this.size = size;
+            this.positions = positions;
+            this.changed = changed;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            Objects.checkIndex(index, size);
+            if (positions == null) {
+                return base.get(firstRow + index);
+            }
+            int position = positions[index];
+            return position >= 0 ? base.get(position) : changed.get(-1 - position);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // What the ledger holds for an id beyond the snapshot; a null transaction hides the snapshot row
+    private static final class Change {
+        final Transaction transaction;
+        final int position;
+
+        Change(Transaction transaction, int position) {
+            this.transaction = transaction;
+            this.position = position;
+        }
+    }
+
+    private static final class State {
+        final SegmentedTransactionStore base;
+        final HashTrie<String, Change> byId;
+        // Epoch day -> transactions on that day, in the order they were added
+        final HashTrie<Integer, List<Transaction>> byDay;
+        // Ids in the order they were added. The array is shared between versions and only
+        // ever written past every published orderLength, so older versions read it safely.
+        final String[] order;
+        final int orderLength;
+        // Bounds of the days in byDay, so range scans never walk empty centuries
+        final int firstDay;
+        final int lastDay;
+
+        State(SegmentedTransactionStore base, HashTrie<String, Change> byId, HashTrie<Integer, List<Transaction>> byDay,
+              String[] order, int orderLength, int firstDay, int lastDay) {
+            this.base = base;
+            this.byId = byId;
+            this.byDay = byDay;
+            this.order = order;
+            this.orderLength = orderLength;
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+        }
+
+        State with(HashTrie<String, Change> byId) {
+            return new State(base, byId, byDay, order, orderLength, firstDay, lastDay);
+        }
+
+        // Adds t as the newest entry in the order
+        State append(Transaction t) {
+            String[] newOrder = orderLength < order.length ? order : Arrays.copyOf(order, order.length * 2);
+            newOrder[orderLength] = t.getId();
+            State s = new State(base, byId.put(t.getId(), new Change(t, orderLength)), byDay,
+                    newOrder, orderLength + 1, firstDay, lastDay);
+            return s.withDay(t);
+        }
+
+        // Swaps in t for a live entry, keeping its position
+        State replace(Change previous, Transaction t) {
+            State s = withoutDay(previous.transaction);
+            return s.with(s.byId.put(t.getId(), new Change(t, previous.position))).withDay(t);
+        }
+
+        State withDay(Transaction t) {
+            int day = (int) t.getDate().toEpochDay();
+            List<Transaction> onDay = byDay.get(day);
+            List<Transaction> copy = onDay != null ? new ArrayList<>(onDay) : new ArrayList<>(1);
+            copy.add(t);
+            return new State(base, byId, byDay.put(day, copy), order, orderLength,
+                    Math.min(firstDay, day), Math.max(lastDay, day));
+        }
+
+        State withoutDay(Transaction t) {
+            int day = (int) t.getDate().toEpochDay();
+            List<Transaction> onDay = byDay.get(day);
+            if (onDay == null) return this;
+
+            List<Transaction> copy = new ArrayList<>(onDay);
+            copy.removeIf(existing -> existing.getId().equals(t.getId()));
+            HashTrie<Integer, List<Transaction>> newByDay = copy.isEmpty() ? byDay.remove(day) : byDay.put(day, copy);
+            return new State(base, byId, newByDay, order, orderLength, firstDay, lastDay);
+        }
     }
 }
\ No newline at end of file